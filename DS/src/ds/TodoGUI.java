@@ -6,7 +6,17 @@
 package ds;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.Predicate;
+import javax.swing.JComboBox;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JTable;
+import javax.swing.JTextField;
+import javax.swing.table.AbstractTableModel;
 
 /**
  *
@@ -18,10 +28,15 @@ public class TodoGUI extends javax.swing.JFrame {
      * Creates new form TodoGUI
      */
 public static class ToDoListLogic {
+        public static final String EXECUTED = "✔";
+        public static final String NOT_EXECUTED = "✖";
+
         public static class Task {
             private final String name;
             private final String priority;
             private String status;
+            // Order the task was added in; stays the same when the task is edited
+            private long sequence;
 
             public Task(String name, String priority) {
                 this.name = name;
@@ -41,27 +56,161 @@ public static class ToDoListLogic {
                 return status;
             }
 
-            public void setStatus(String status) {
+            // Only the logic changes the status of a stored task, so its views stay in sync
+            void setStatus(String status) {
                 this.status = status;
             }
+
+            // High, Medium, Low, then anything else
+            int getPriorityLevel() {
+                switch (priority) {
+                    case "High":
+                        return 1;
+                    case "Medium":
+                        return 2;
+                    case "Low":
+                        return 3;
+                    default:
+                        return 4;
+                }
+            }
         }
 
+        /** Told about every row a view gains, loses or changes. */
+        public interface ViewListener {
+            void rowInserted(int row);
+
+            void rowDeleted(int row);
+
+            void rowUpdated(int row);
+        }
+
+        /**
+         * Live list of the tasks a filter accepts, in a fixed order. Rows are
+         * found by binary search on that order, so a change moves one row and
+         * tells the listeners which, instead of the list being built again.
+         */
+        public static final class View {
+            private final Predicate<Task> filter;
+            private final Comparator<Task> order;
+            private final List<Task> rows = new ArrayList<>();
+            private final List<ViewListener> listeners = new ArrayList<>();
+
+            View(Predicate<Task> filter, Comparator<Task> order) {
+                this.filter = filter;
+                this.order = order;
+            }
+
+            public Task get(int row) {
+                return rows.get(row);
+            }
+
+            public int size() {
+                return rows.size();
+            }
+
+            public void addViewListener(ViewListener listener) {
+                listeners.add(listener);
+            }
+
+            public void removeViewListener(ViewListener listener) {
+                listeners.remove(listener);
+            }
+
+            // The order only uses fields a task never changes, so a task is found even after its status changed
+            private int indexOf(Task task) {
+                int row = Collections.binarySearch(rows, task, order);
+                return row >= 0 && rows.get(row) == task ? row : -1;
+            }
+
+            // Brings the view up to date after the task was added or changed
+            void update(Task task) {
+                int row = indexOf(task);
+                if (!filter.test(task)) {
+                    if (row >= 0) {
+                        remove(row);
+                    }
+                } else if (row >= 0) {
+                    for (ViewListener listener : listeners) {
+                        listener.rowUpdated(row);
+                    }
+                } else {
+                    row = -Collections.binarySearch(rows, task, order) - 1;
+                    rows.add(row, task);
+                    for (ViewListener listener : listeners) {
+                        listener.rowInserted(row);
+                    }
+                }
+            }
+
+            void remove(Task task) {
+                int row = indexOf(task);
+                if (row >= 0) {
+                    remove(row);
+                }
+            }
+
+            private void remove(int row) {
+                rows.remove(row);
+                for (ViewListener listener : listeners) {
+                    listener.rowDeleted(row);
+                }
+            }
+        }
+
+        private static final Comparator<Task> ADDED_ORDER = Comparator.comparingLong(task -> task.sequence);
+
         private final List<Task> tasks;
+        private final View all = new View(task -> true, ADDED_ORDER);
+        private final View executed = new View(task -> task.getStatus().equals(EXECUTED), ADDED_ORDER);
+        private final View nonExecuted = new View(task -> task.getStatus().equals(NOT_EXECUTED), ADDED_ORDER);
+        private final View byPriority = new View(task -> true,
+                Comparator.comparingInt(Task::getPriorityLevel).thenComparing(ADDED_ORDER));
+        private final List<View> views = Arrays.asList(all, executed, nonExecuted, byPriority);
+        private long nextSequence;
 
         public ToDoListLogic() {
             tasks = new ArrayList<>();
         }
 
         public void addTask(String name, String priority) {
-            tasks.add(new Task(name, priority));
+            Task task = new Task(name, priority);
+            task.sequence = nextSequence++;
+            tasks.add(task);
+            for (View view : views) {
+                view.update(task);
+            }
         }
 
         public void removeTask(int index) {
             if (index >= 0 && index < tasks.size()) {
-                tasks.remove(index);
+                Task task = tasks.remove(index);
+                for (View view : views) {
+                    view.remove(task);
+                }
+            }
+        }
+
+        public void setStatus(Task task, String status) {
+            task.setStatus(status);
+            for (View view : views) {
+                view.update(task);
             }
         }
 
+        // Tasks are immutable apart from their status, so an edit replaces the task in its place
+        public Task editTask(Task task, String name, String priority) {
+            Task edited = new Task(name, priority);
+            edited.status = task.status;
+            edited.sequence = task.sequence;
+            tasks.set(tasks.indexOf(task), edited);
+            for (View view : views) {
+                view.remove(task);
+                view.update(edited);
+            }
+            return edited;
+        }
+
         public List<Task> getTasks() {
             return tasks;
         }
@@ -75,7 +224,96 @@ public static class ToDoListLogic {
             }
             return filtered;
         }
+
+        // In the order the tasks were added
+        public View getAllView() {
+            return all;
+        }
+
+        public View getExecutedView() {
+            return executed;
+        }
+
+        public View getNonExecutedView() {
+            return nonExecuted;
+        }
+
+        // High first, then Medium, then Low; the order they were added within a priority
+        public View getByPriorityView() {
+            return byPriority;
+        }
+    }
+
+    /**
+     * Shows one view of the shared logic. Rows are read from the view when
+     * the table paints them, so a tab costs as much as its visible rows, and
+     * each change to the view is passed on as a single row event.
+     */
+    private static final class TaskTableModel extends AbstractTableModel implements ToDoListLogic.ViewListener {
+        private static final String[] COLUMNS = {"Name", "Priority", "Status"};
+
+        private final ToDoListLogic.View view;
+
+        TaskTableModel(ToDoListLogic.View view) {
+            this.view = view;
+            view.addViewListener(this);
+        }
+
+        ToDoListLogic.Task getTask(int row) {
+            return view.get(row);
+        }
+
+        @Override
+        public int getRowCount() {
+            return view.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            ToDoListLogic.Task task = view.get(row);
+            switch (column) {
+                case 0:
+                    return task.getName();
+                case 1:
+                    return task.getPriority();
+                default:
+                    return task.getStatus();
+            }
+        }
+
+        @Override
+        public void rowInserted(int row) {
+            fireTableRowsInserted(row, row);
+        }
+
+        @Override
+        public void rowDeleted(int row) {
+            fireTableRowsDeleted(row, row);
+        }
+
+        @Override
+        public void rowUpdated(int row) {
+            fireTableRowsUpdated(row, row);
+        }
     }
+
+    // One logic shared by every tab; each table shows a live view of it
+    private final ToDoListLogic logic = new ToDoListLogic();
+    private final TaskTableModel allModel = new TaskTableModel(logic.getAllView());
+    private final TaskTableModel executedModel = new TaskTableModel(logic.getExecutedView());
+    private final TaskTableModel nonExecutedModel = new TaskTableModel(logic.getNonExecutedView());
+    private final TaskTableModel byPriorityModel = new TaskTableModel(logic.getByPriorityView());
+
     public TodoGUI() {
         initComponents();
     }
@@ -103,7 +341,7 @@ public static class ToDoListLogic {
         jButton3 = new javax.swing.JButton();
         jButton5 = new javax.swing.JButton();
         jButton6 = new javax.swing.JButton();
-        jPanel8 = new javax.swing.JPanel();
+        taskTabs = new javax.swing.JTabbedPane();
         jPanel9 = new javax.swing.JPanel();
         jScrollPane1 = new javax.swing.JScrollPane();
         jTable1 = new javax.swing.JTable();
@@ -216,6 +454,11 @@ public static class ToDoListLogic {
         });
 
         jButton3.setText("CHECKED");
+        jButton3.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                jButton3ActionPerformed(evt);
+            }
+        });
 
         jButton5.setText("UNCHECKED");
         jButton5.addActionListener(new java.awt.event.ActionListener() {
@@ -259,25 +502,7 @@ public static class ToDoListLogic {
         );
 
         jTable1.setFont(new java.awt.Font("Roboto", 0, 18)); // NOI18N
-        jTable1.setModel(new javax.swing.table.DefaultTableModel(
-            new Object [][] {
-                {null, null, null},
-                {null, null, null},
-                {null, null, null},
-                {null, null, null}
-            },
-            new String [] {
-                "Name", "Priority", "Stataus"
-            }
-        ) {
-            boolean[] canEdit = new boolean [] {
-                false, false, false
-            };
-
-            public boolean isCellEditable(int rowIndex, int columnIndex) {
-                return canEdit [columnIndex];
-            }
-        });
+        jTable1.setModel(allModel);
         jTable1.setRowHeight(24);
         jTable1.setShowHorizontalLines(false);
         jTable1.setShowVerticalLines(false);
@@ -295,18 +520,10 @@ public static class ToDoListLogic {
             .addComponent(jScrollPane1, javax.swing.GroupLayout.Alignment.TRAILING, javax.swing.GroupLayout.DEFAULT_SIZE, 672, Short.MAX_VALUE)
         );
 
+        taskTabs.addTab("All", jPanel9);
+
         jTable2.setFont(new java.awt.Font("Roboto", 0, 18)); // NOI18N
-        jTable2.setModel(new javax.swing.table.DefaultTableModel(
-            new Object [][] {
-                {null, null, null},
-                {null, null, null},
-                {null, null, null},
-                {null, null, null}
-            },
-            new String [] {
-                "Name", "Priority", "Stataus"
-            }
-        ));
+        jTable2.setModel(executedModel);
         jTable2.setRowHeight(24);
         jTable2.setShowHorizontalLines(false);
         jTable2.setShowVerticalLines(false);
@@ -324,18 +541,10 @@ public static class ToDoListLogic {
             .addComponent(jScrollPane2, javax.swing.GroupLayout.Alignment.TRAILING, javax.swing.GroupLayout.DEFAULT_SIZE, 672, Short.MAX_VALUE)
         );
 
+        taskTabs.addTab("Executed", jPanel10);
+
         jTable3.setFont(new java.awt.Font("Roboto", 0, 18)); // NOI18N
-        jTable3.setModel(new javax.swing.table.DefaultTableModel(
-            new Object [][] {
-                {null, null, null},
-                {null, null, null},
-                {null, null, null},
-                {null, null, null}
-            },
-            new String [] {
-                "Name", "Priority", "Stataus"
-            }
-        ));
+        jTable3.setModel(nonExecutedModel);
         jTable3.setRowHeight(24);
         jTable3.setShowHorizontalLines(false);
         jTable3.setShowVerticalLines(false);
@@ -353,18 +562,10 @@ public static class ToDoListLogic {
             .addComponent(jScrollPane3, javax.swing.GroupLayout.Alignment.TRAILING, javax.swing.GroupLayout.DEFAULT_SIZE, 646, Short.MAX_VALUE)
         );
 
+        taskTabs.addTab("Non-Executed", jPanel11);
+
         jTable4.setFont(new java.awt.Font("Roboto", 0, 18)); // NOI18N
-        jTable4.setModel(new javax.swing.table.DefaultTableModel(
-            new Object [][] {
-                {null, null, null},
-                {null, null, null},
-                {null, null, null},
-                {null, null, null}
-            },
-            new String [] {
-                "Name", "Priority", "Stataus"
-            }
-        ));
+        jTable4.setModel(byPriorityModel);
         jTable4.setRowHeight(24);
         jTable4.setShowHorizontalLines(false);
         jTable4.setShowVerticalLines(false);
@@ -382,56 +583,7 @@ public static class ToDoListLogic {
             .addComponent(jScrollPane4, javax.swing.GroupLayout.Alignment.TRAILING, javax.swing.GroupLayout.DEFAULT_SIZE, 646, Short.MAX_VALUE)
         );
 
-        javax.swing.GroupLayout jPanel8Layout = new javax.swing.GroupLayout(jPanel8);
-        jPanel8.setLayout(jPanel8Layout);
-        jPanel8Layout.setHorizontalGroup(
-            jPanel8Layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
-            .addGap(0, 0, Short.MAX_VALUE)
-            .addGroup(jPanel8Layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
-                .addGroup(jPanel8Layout.createSequentialGroup()
-                    .addContainerGap()
-                    .addComponent(jPanel9, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
-                    .addContainerGap()))
-            .addGroup(jPanel8Layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
-                .addGroup(jPanel8Layout.createSequentialGroup()
-                    .addGap(24, 24, 24)
-                    .addComponent(jPanel10, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
-                    .addGap(24, 24, 24)))
-            .addGroup(jPanel8Layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
-                .addGroup(jPanel8Layout.createSequentialGroup()
-                    .addGap(24, 24, 24)
-                    .addComponent(jPanel11, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
-                    .addGap(24, 24, 24)))
-            .addGroup(jPanel8Layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
-                .addGroup(jPanel8Layout.createSequentialGroup()
-                    .addGap(24, 24, 24)
-                    .addComponent(jPanel12, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
-                    .addGap(24, 24, 24)))
-        );
-        jPanel8Layout.setVerticalGroup(
-            jPanel8Layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
-            .addGap(0, 724, Short.MAX_VALUE)
-            .addGroup(jPanel8Layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
-                .addGroup(jPanel8Layout.createSequentialGroup()
-                    .addContainerGap()
-                    .addComponent(jPanel9, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
-                    .addContainerGap(javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)))
-            .addGroup(jPanel8Layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
-                .addGroup(jPanel8Layout.createSequentialGroup()
-                    .addGap(26, 26, 26)
-                    .addComponent(jPanel10, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
-                    .addContainerGap(26, Short.MAX_VALUE)))
-            .addGroup(jPanel8Layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
-                .addGroup(jPanel8Layout.createSequentialGroup()
-                    .addGap(39, 39, 39)
-                    .addComponent(jPanel11, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
-                    .addContainerGap(39, Short.MAX_VALUE)))
-            .addGroup(jPanel8Layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
-                .addGroup(jPanel8Layout.createSequentialGroup()
-                    .addGap(39, 39, 39)
-                    .addComponent(jPanel12, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
-                    .addContainerGap(39, Short.MAX_VALUE)))
-        );
+        taskTabs.addTab("By Priority", jPanel12);
 
         javax.swing.GroupLayout jPanel1Layout = new javax.swing.GroupLayout(jPanel1);
         jPanel1.setLayout(jPanel1Layout);
@@ -442,14 +594,14 @@ public static class ToDoListLogic {
                 .addGap(0, 0, Short.MAX_VALUE)
                 .addGroup(jPanel1Layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING, false)
                     .addComponent(jPanel2, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
-                    .addComponent(jPanel8, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)))
+                    .addComponent(taskTabs, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)))
         );
         jPanel1Layout.setVerticalGroup(
             jPanel1Layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
             .addGroup(jPanel1Layout.createSequentialGroup()
                 .addComponent(jPanel2, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
                 .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
-                .addComponent(jPanel8, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                .addComponent(taskTabs, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
                 .addGap(18, 18, Short.MAX_VALUE)
                 .addComponent(jPanel4, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
                 .addGap(0, 0, Short.MAX_VALUE))
@@ -472,17 +624,34 @@ public static class ToDoListLogic {
     }// </editor-fold>//GEN-END:initComponents
 
     private void jButton2ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton2ActionPerformed
-        // TODO add your handling code here:
-                                             
-     dialog.setVisible(true);  
+        dialog.pack();
+        dialog.setLocationRelativeTo(this);
+        dialog.setVisible(true);
     }//GEN-LAST:event_jButton2ActionPerformed
 
     private void jButton5ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton5ActionPerformed
-        // TODO add your handling code here:
+        for (ToDoListLogic.Task task : selectedTasks()) {
+            logic.setStatus(task, ToDoListLogic.NOT_EXECUTED);
+        }
     }//GEN-LAST:event_jButton5ActionPerformed
 
     private void jButton6ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton6ActionPerformed
-        // TODO add your handling code here:
+        List<ToDoListLogic.Task> selected = selectedTasks();
+        if (selected.isEmpty()) {
+            return;
+        }
+        ToDoListLogic.Task task = selected.get(0);
+        JTextField nameField = new JTextField(task.getName(), 20);
+        JComboBox<String> priorityField = new JComboBox<>(new String[] { "High", "Medium", "Low" });
+        priorityField.setSelectedItem(task.getPriority());
+        JPanel editPanel = new JPanel();
+        editPanel.add(nameField);
+        editPanel.add(priorityField);
+        int choice = JOptionPane.showConfirmDialog(this, editPanel, "Edit Task", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        String name = nameField.getText().trim();
+        if (choice == JOptionPane.OK_OPTION && !name.isEmpty()) {
+            logic.editTask(task, name, (String) priorityField.getSelectedItem());
+        }
     }//GEN-LAST:event_jButton6ActionPerformed
 
     private void taskNameFieldActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_taskNameFieldActionPerformed
@@ -494,20 +663,38 @@ public static class ToDoListLogic {
     }//GEN-LAST:event_priorityBoxActionPerformed
 
     private void jButton1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton1ActionPerformed
-        // TODO add your handling code here:
-//                    String taskName = taskNameField.getText();
-//            
-//            String priority = (String) priorityBox.getSelectedItem();
-//            logic.addTask(taskName, priority);
-//            updateMainTable();
-//            dialog.dispose();
-        
+        String taskName = taskNameField.getText().trim();
+        if (taskName.isEmpty()) {
+            return;
+        }
+        String priority = (String) priorityBox.getSelectedItem();
+        // Every tab follows the logic, so nothing needs refreshing here
+        logic.addTask(taskName, priority);
+        taskNameField.setText("");
+        dialog.dispose();
     }//GEN-LAST:event_jButton1ActionPerformed
 
     private void jButton2MouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_jButton2MouseClicked
      dialog.setVisible(true);   // TODO add your handling code here:
     }//GEN-LAST:event_jButton2MouseClicked
 
+    private void jButton3ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton3ActionPerformed
+        for (ToDoListLogic.Task task : selectedTasks()) {
+            logic.setStatus(task, ToDoListLogic.EXECUTED);
+        }
+    }//GEN-LAST:event_jButton3ActionPerformed
+
+    // The tasks selected in the tab on show, collected before any of them changes and moves its row
+    private List<ToDoListLogic.Task> selectedTasks() {
+        JTable table = new JTable[] { jTable1, jTable2, jTable3, jTable4 }[taskTabs.getSelectedIndex()];
+        TaskTableModel model = (TaskTableModel) table.getModel();
+        List<ToDoListLogic.Task> selected = new ArrayList<>();
+        for (int row : table.getSelectedRows()) {
+            selected.add(model.getTask(table.convertRowIndexToModel(row)));
+        }
+        return selected;
+    }
+
     /**
      * @param args the command line arguments
      */
@@ -535,6 +722,9 @@ public static class ToDoListLogic {
         }
         //</editor-fold>
 
+        // -Dtodo.edtWatchdog=true logs event handlers that hold up the EDT
+        EdtWatchdog.installIfEnabled();
+
         /* Create and display the form */
         java.awt.EventQueue.invokeLater(new Runnable() {
             public void run() {
@@ -559,7 +749,6 @@ public static class ToDoListLogic {
     private javax.swing.JPanel jPanel12;
     private javax.swing.JPanel jPanel2;
     private javax.swing.JPanel jPanel4;
-    private javax.swing.JPanel jPanel8;
     private javax.swing.JPanel jPanel9;
     private javax.swing.JScrollPane jScrollPane1;
     private javax.swing.JScrollPane jScrollPane2;
@@ -571,5 +760,6 @@ public static class ToDoListLogic {
     private javax.swing.JTable jTable4;
     private javax.swing.JComboBox<String> priorityBox;
     private javax.swing.JTextField taskNameField;
+    private javax.swing.JTabbedPane taskTabs;
     // End of variables declaration//GEN-END:variables
 }
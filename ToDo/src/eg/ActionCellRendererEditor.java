@@ -0,0 +1,63 @@
+package eg;
+
+import javax.swing.AbstractCellEditor;
+import javax.swing.JButton;
+import javax.swing.JTable;
+import javax.swing.table.TableCellEditor;
+import javax.swing.table.TableCellRenderer;
+import java.awt.Component;
+import java.util.function.IntConsumer;
+
+/**
+ * Button column for a JTable ("Remove", "Open", ...). One button paints
+ * every row and a second one handles the click, however many rows there
+ * are, so the cells of the column hold no components at all; the cell
+ * value is ignored. Install it once per column:
+ *
+ * <pre>
+ * ActionCellRendererEditor remove = new ActionCellRendererEditor("Remove", row -> ...);
+ * column.setCellRenderer(remove);
+ * column.setCellEditor(remove);
+ * </pre>
+ *
+ * The action receives the model row of the clicked cell, after editing
+ * has stopped, so it may remove that row.
+ */
+public class ActionCellRendererEditor extends AbstractCellEditor implements TableCellRenderer, TableCellEditor {
+
+    private final JButton renderButton;
+    private final JButton editButton;
+    private final IntConsumer action;
+    private JTable table;
+    private int row = -1;
+
+    public ActionCellRendererEditor(String label, IntConsumer action) {
+        this.action = action;
+        renderButton = new JButton(label);
+        editButton = new JButton(label);
+        editButton.setFocusable(false);
+        editButton.addActionListener(e -> {
+            int modelRow = table.convertRowIndexToModel(row);
+            fireEditingStopped();
+            action.accept(modelRow);
+        });
+    }
+
+    @Override
+    public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                   boolean hasFocus, int row, int column) {
+        return renderButton;
+    }
+
+    @Override
+    public Component getTableCellEditorComponent(JTable table, Object value, boolean isSelected, int row, int column) {
+        this.table = table;
+        this.row = row;
+        return editButton;
+    }
+
+    @Override
+    public Object getCellEditorValue() {
+        return null;
+    }
+}
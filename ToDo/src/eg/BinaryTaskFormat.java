@@ -0,0 +1,187 @@
+package eg;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary task snapshot.
+ *
+ * <pre>
+ * header  int magic "TDSB", short version, short flags, long journalSeq,
+ *         int taskCount, int stringCount, int bodyLength
+ * body    stringCount x (varint length, UTF-8 bytes)
+ *         taskCount x (byte packed [, varint priorityIndex], varlong idDelta)
+ * trailer int CRC32 of the body
+ * </pre>
+ *
+ * The string table starts with the task names in row order, so task i is
+ * named by string i. The packed byte holds the priority in bits 0-1 (High,
+ * Medium, Low, other) and the TaskStatus ordinal in bits 2-3. An "other"
+ * priority is followed by an index into the string table, where each
+ * distinct one is stored once after the names. Varints are
+ * unsigned LEB128, so short names and low indexes take a single byte. Task
+ * ids are stored as the zig-zag encoded difference to the previous row's id,
+ * which is small since rows are in id order within each priority. Version 1
+ * files have no ids; their tasks get fresh ones when stored. The whole file
+ * is read with one bulk FileChannel read; TaskExporter writes it.
+ */
+final class BinaryTaskFormat {
+
+    static final int MAGIC = 0x54445342;
+    static final short VERSION = 2;
+    // Before task ids
+    private static final short VERSION_NO_IDS = 1;
+
+    static final int HEADER_SIZE = 28;
+    static final int OTHER = 3;
+
+    private static final Priority[] PRIORITIES = {Priority.HIGH, Priority.MEDIUM, Priority.LOW};
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private BinaryTaskFormat() {
+    }
+
+    static List<ToDoListLogic.Task> read(Path file) throws IOException {
+        ByteBuffer buffer = readFully(file);
+        int taskCount = buffer.getInt(16);
+        int stringCount = buffer.getInt(20);
+        boolean hasIds = buffer.getShort(4) != VERSION_NO_IDS;
+        buffer.position(HEADER_SIZE);
+
+        String[] strings = new String[stringCount];
+        byte[] array = buffer.array();
+        for (int i = 0; i < stringCount; i++) {
+            int length = getVarint(buffer);
+            strings[i] = new String(array, buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        }
+
+        List<ToDoListLogic.Task> tasks = new ArrayList<>(taskCount);
+        long id = 0;
+        for (int i = 0; i < taskCount; i++) {
+            int packed = buffer.get();
+            int priority = packed & 3;
+            int status = packed >> 2 & 3;
+            Priority priorityValue = priority == OTHER ? Priority.of(strings[getVarint(buffer)]) : PRIORITIES[priority];
+            if (hasIds) {
+                id += unZigZag(getVarlong(buffer));
+            }
+            tasks.add(new ToDoListLogic.Task(id, strings[i], priorityValue, STATUSES[status]));
+        }
+        return tasks;
+    }
+
+    static long readJournalSeq(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // FileChannel may return short reads
+            }
+            if (header.hasRemaining()) {
+                throw new IOException("Not a task snapshot: " + file);
+            }
+            checkHeader(header, file);
+            return header.getLong(8);
+        }
+    }
+
+    // One bulk read of the whole file, then header and checksum validation
+    private static ByteBuffer readFully(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + 4 || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a task snapshot: " + file);
+            }
+            buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // FileChannel may return short reads
+            }
+        }
+        checkHeader(buffer, file);
+        int bodyLength = buffer.getInt(24);
+        if (HEADER_SIZE + bodyLength + 4 != buffer.capacity()) {
+            throw new IOException("Truncated task snapshot: " + file);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER_SIZE, bodyLength);
+        if (buffer.getInt(HEADER_SIZE + bodyLength) != (int) crc.getValue()) {
+            throw new IOException("Checksum mismatch in task snapshot: " + file);
+        }
+        return buffer;
+    }
+
+    private static void checkHeader(ByteBuffer buffer, Path file) throws IOException {
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a task snapshot: " + file);
+        }
+        short version = buffer.getShort(4);
+        if (version != VERSION && version != VERSION_NO_IDS) {
+            throw new IOException("Unsupported task snapshot version " + version + ": " + file);
+        }
+    }
+
+    // Priorities are canonical, so identity is enough
+    static int code(Priority priority) {
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            if (PRIORITIES[i] == priority) {
+                return i;
+            }
+        }
+        return OTHER;
+    }
+
+    static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7f) != 0) {
+            buffer.put((byte) (value & 0x7f | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    static void putVarlong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7fL) != 0) {
+            buffer.put((byte) (value & 0x7f | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    static long getVarlong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7f) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    // Maps small negative and positive differences alike to small unsigned values
+    static long zigZag(long value) {
+        return value << 1 ^ value >> 63;
+    }
+
+    private static long unZigZag(long value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7f) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package eg;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Tasks stored column by column instead of one object per task: a byte per
+ * row for the priority and for the status, a long for the id, and every
+ * name in one shared UTF-8 buffer addressed by an offset per row. Scanning
+ * a column is a loop over a primitive array, so filtering or ordering
+ * millions of rows touches a few contiguous arrays rather than one Task and
+ * two Strings per row. Like TaskStore, it also indexes rows by status:
+ * one bitmap per status, so a status filter reads a bit per row instead of
+ * a byte and skips 64 non-matching rows at a time.
+ *
+ * <p>Rows are kept in the order they were added. As a List it hands out a
+ * new Task per {@code get}, so callers that only need one field should use
+ * the per-column getters. Not thread-safe; fill it on one thread, then
+ * hand it over, for example as a read-only copy of {@link TaskStore#tasks()}
+ * to filter or sort off the EDT.
+ */
+public final class ColumnarTaskStore extends AbstractList<ToDoListLogic.Task> implements RandomAccess {
+
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+    // Distinct priorities one store can hold; a byte column has room for this many codes
+    private static final int MAX_PRIORITIES = 256;
+
+    private long[] ids;
+    private byte[] priorities;
+    private byte[] statuses;
+    // Bit r of statusBits[s] is set when row r has status s
+    private final long[][] statusBits = new long[STATUSES.length][];
+    // Row i's name is names[nameOffsets[i], nameOffsets[i + 1])
+    private int[] nameOffsets;
+    private byte[] names;
+    private int size;
+    private int nameBytes;
+    // Priority of each code; High, Medium and Low are always codes 0 to 2
+    private Priority[] priorityTable = {Priority.HIGH, Priority.MEDIUM, Priority.LOW};
+    private final int[] statusCounts = new int[STATUSES.length];
+
+    public ColumnarTaskStore() {
+        this(16, 256);
+    }
+
+    public ColumnarTaskStore(int expectedRows, int expectedNameBytes) {
+        ids = new long[expectedRows];
+        priorities = new byte[expectedRows];
+        statuses = new byte[expectedRows];
+        nameOffsets = new int[expectedRows + 1];
+        names = new byte[expectedNameBytes];
+        for (int s = 0; s < statusBits.length; s++) {
+            statusBits[s] = new long[words(expectedRows)];
+        }
+    }
+
+    // Copies the tasks in list order
+    public static ColumnarTaskStore of(List<ToDoListLogic.Task> tasks) {
+        // Most names are ASCII; the buffer grows if they are not
+        int nameBytes = 0;
+        for (ToDoListLogic.Task task : tasks) {
+            nameBytes += task.getName().length();
+        }
+        ColumnarTaskStore store = new ColumnarTaskStore(tasks.size(), nameBytes);
+        for (ToDoListLogic.Task task : tasks) {
+            store.add(task);
+        }
+        return store;
+    }
+
+    // Appends a copy of the task's fields; the task itself is not kept
+    @Override
+    public boolean add(ToDoListLogic.Task task) {
+        byte[] name = task.getName().getBytes(StandardCharsets.UTF_8);
+        if (size == ids.length) {
+            int capacity = Math.max(16, size + (size >> 1));
+            ids = Arrays.copyOf(ids, capacity);
+            priorities = Arrays.copyOf(priorities, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            nameOffsets = Arrays.copyOf(nameOffsets, capacity + 1);
+            for (int s = 0; s < statusBits.length; s++) {
+                statusBits[s] = Arrays.copyOf(statusBits[s], words(capacity));
+            }
+        }
+        if (name.length > names.length - nameBytes) {
+            long needed = (long) nameBytes + name.length;
+            if (needed > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("Task names exceed " + (Integer.MAX_VALUE - 8) + " bytes");
+            }
+            names = Arrays.copyOf(names, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(needed, nameBytes + (long) (nameBytes >> 1))));
+        }
+        System.arraycopy(name, 0, names, nameBytes, name.length);
+        nameBytes += name.length;
+
+        ids[size] = task.getId();
+        priorities[size] = (byte) priorityCode(task.getPriorityValue());
+        statuses[size] = (byte) task.getStatus().ordinal();
+        statusCounts[task.getStatus().ordinal()]++;
+        statusBits[task.getStatus().ordinal()][size >>> 6] |= 1L << size;
+        size++;
+        nameOffsets[size] = nameBytes;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public ToDoListLogic.Task get(int row) {
+        checkRow(row);
+        return new ToDoListLogic.Task(ids[row], getName(row), getPriority(row), getStatus(row));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public int size(TaskStatus status) {
+        return statusCounts[status.ordinal()];
+    }
+
+    public long getId(int row) {
+        checkRow(row);
+        return ids[row];
+    }
+
+    public String getName(int row) {
+        checkRow(row);
+        return new String(names, nameOffsets[row], nameOffsets[row + 1] - nameOffsets[row], StandardCharsets.UTF_8);
+    }
+
+    public Priority getPriority(int row) {
+        checkRow(row);
+        return priorityTable[priorities[row] & 0xff];
+    }
+
+    public TaskStatus getStatus(int row) {
+        checkRow(row);
+        return STATUSES[statuses[row]];
+    }
+
+    public void setStatus(int row, TaskStatus status) {
+        checkRow(row);
+        statusCounts[statuses[row]]--;
+        statusBits[statuses[row]][row >>> 6] &= ~(1L << row);
+        statusCounts[status.ordinal()]++;
+        statusBits[status.ordinal()][row >>> 6] |= 1L << row;
+        statuses[row] = (byte) status.ordinal();
+    }
+
+    /** Rows with the given status, in row order. */
+    public int[] filter(TaskStatus status) {
+        long[] bits = statusBits[status.ordinal()];
+        int[] rows = new int[statusCounts[status.ordinal()]];
+        int n = 0;
+        for (int w = 0; n < rows.length; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                rows[n++] = w << 6 | Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Every row in the order TaskStore shows them when rows were added in id
+     * order: High, Medium, Low, then every other priority, rows of one
+     * bucket in row order. A counting sort over the priority column, so
+     * linear in the row count.
+     */
+    public int[] orderByPriority() {
+        // Codes 0 to 2 are High, Medium and Low; every other code shares the last bucket, as in PriorityBuckets
+        int last = PriorityBuckets.BUCKETS - 1;
+        int[] starts = new int[PriorityBuckets.BUCKETS];
+        byte[] column = priorities;
+        for (int row = 0; row < size; row++) {
+            starts[Math.min(column[row] & 0xff, last)]++;
+        }
+        int start = 0;
+        for (int b = 0; b < starts.length; b++) {
+            int count = starts[b];
+            starts[b] = start;
+            start += count;
+        }
+        int[] rows = new int[size];
+        for (int row = 0; row < size; row++) {
+            rows[starts[Math.min(column[row] & 0xff, last)]++] = row;
+        }
+        return rows;
+    }
+
+    private int priorityCode(Priority priority) {
+        for (int c = 0; c < priorityTable.length; c++) {
+            if (priorityTable[c] == priority) {
+                return c;
+            }
+        }
+        if (priorityTable.length == MAX_PRIORITIES) {
+            throw new IllegalStateException("More than " + MAX_PRIORITIES + " distinct priorities");
+        }
+        priorityTable = Arrays.copyOf(priorityTable, priorityTable.length + 1);
+        priorityTable[priorityTable.length - 1] = priority;
+        return priorityTable.length - 1;
+    }
+
+    private static int words(int rows) {
+        return (rows + 63) >>> 6;
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Index: " + row + ", Size: " + size);
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package eg;
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Event queue that times every event the EDT dispatches and reports the
+ * ones that keep it busy longer than a threshold, so a "frozen" window can
+ * be traced to the handler responsible. Off unless the app is started with
+ * {@code -Dtodo.edtWatchdog=true}; the threshold is
+ * {@code -Dtodo.edtWatchdog.millis} (100 by default).
+ *
+ * <p>A sampler thread looks at the EDT while an event is running; once the
+ * event has run past the threshold it takes the EDT's stack. Slow events
+ * are grouped by handler: the outermost application method on that stack,
+ * looking through lambdas and anonymous listener classes, such as
+ * {@code ToDoListGUI.openEditTaskDialog} or {@code TaskChangeBus.flush}.
+ * A slow event that finished before it could be sampled is grouped by its
+ * event type and source instead.
+ *
+ * <p>Only the time an event's handler works is charged to it. While it
+ * waits in a nested event loop, as a modal dialog runs one inside the event
+ * that opened it, the clock stops; the events that loop dispatches are
+ * timed on their own.
+ *
+ * <p>Each handler's first slow event is logged with its stack, later ones
+ * with one line; {@link #report()} sums them up and is logged on exit.
+ * Every dispatch is also recorded as the {@code edt.dispatch} latency of
+ * TaskMetrics.
+ */
+public final class EdtWatchdog extends EventQueue {
+
+    static final long DEFAULT_THRESHOLD_MILLIS = 100;
+
+    private static final Logger LOG = Logger.getLogger(EdtWatchdog.class.getName());
+    private static final TaskMetrics.Latency DISPATCH = TaskMetrics.latency("edt.dispatch");
+    // Frames of these packages are never a handler
+    private static final String[] PLATFORM_PACKAGES = {"java.", "javax.", "sun.", "jdk.", "com.sun."};
+
+    /** The slow events of one handler so far. */
+    public static final class HandlerStats {
+        private final String handler;
+        private int slowCount;
+        private long totalNanos;
+        private long maxNanos;
+        private StackTraceElement[] slowestStack;
+
+        HandlerStats(String handler) {
+            this.handler = handler;
+        }
+
+        public String getHandler() {
+            return handler;
+        }
+
+        public synchronized int getSlowCount() {
+            return slowCount;
+        }
+
+        public synchronized long getTotalMillis() {
+            return totalNanos / 1_000_000;
+        }
+
+        public synchronized long getMaxMillis() {
+            return maxNanos / 1_000_000;
+        }
+
+        // The EDT's stack during the slowest event that was sampled; empty if none was
+        public synchronized StackTraceElement[] getSlowestStack() {
+            return slowestStack == null ? new StackTraceElement[0] : slowestStack.clone();
+        }
+
+        // True for the first slow event of this handler
+        synchronized boolean add(long nanos, StackTraceElement[] stack) {
+            slowCount++;
+            totalNanos += nanos;
+            if (nanos > maxNanos) {
+                maxNanos = nanos;
+                if (stack != null) {
+                    slowestStack = stack;
+                }
+            }
+            return slowCount == 1;
+        }
+    }
+
+    // One event being dispatched. Written on the EDT; the sampler only reads, and may see a stretch a moment late
+    private static final class Dispatch {
+        // Own time before the current stretch, and when that stretch started
+        volatile long charged;
+        volatile long since;
+        // False while the event waits in a nested loop or one of that loop's events runs
+        volatile boolean running = true;
+        // Taken by the sampler once the event has run past the threshold
+        volatile StackTraceElement[] stack;
+
+        Dispatch(long now) {
+            since = now;
+        }
+
+        void pause(long now) {
+            if (running) {
+                charged += now - since;
+                running = false;
+            }
+        }
+
+        void resume(long now) {
+            since = now;
+            running = true;
+        }
+
+        long ownNanos(long now) {
+            return running ? charged + now - since : charged;
+        }
+    }
+
+    private final long thresholdNanos;
+    private final Map<String, HandlerStats> stats = new ConcurrentHashMap<>();
+    // The innermost event being dispatched, null while the EDT waits
+    private volatile Dispatch current;
+    private volatile Thread edt;
+    private volatile boolean stopped;
+    private Thread sampler;
+
+    public EdtWatchdog(long thresholdMillis) {
+        if (thresholdMillis <= 0) {
+            throw new IllegalArgumentException("Threshold must be positive: " + thresholdMillis);
+        }
+        this.thresholdNanos = thresholdMillis * 1_000_000;
+    }
+
+    // Installs a watchdog when -Dtodo.edtWatchdog=true; returns it, or null when off
+    public static EdtWatchdog installIfEnabled() {
+        if (!Boolean.getBoolean("todo.edtWatchdog")) {
+            return null;
+        }
+        EdtWatchdog watchdog = new EdtWatchdog(Long.getLong("todo.edtWatchdog.millis", DEFAULT_THRESHOLD_MILLIS));
+        watchdog.install();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (!watchdog.stats.isEmpty()) {
+                LOG.info(watchdog.report());
+            }
+        }, "todo-edt-watchdog-exit"));
+        return watchdog;
+    }
+
+    // Takes over dispatching from the current event queue; events already queued move over
+    public void install() {
+        sampler = new Thread(this::sample, "todo-edt-watchdog");
+        sampler.setDaemon(true);
+        sampler.start();
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(this);
+    }
+
+    // Hands dispatching back to the queue this one replaced
+    public void uninstall() {
+        stopped = true;
+        sampler.interrupt();
+        pop();
+    }
+
+    @Override
+    protected void dispatchEvent(AWTEvent event) {
+        long start = System.nanoTime();
+        edt = Thread.currentThread();
+        Dispatch outer = current;
+        if (outer != null) {
+            outer.pause(start); // Dispatched from a nested loop; the outer event is not the one working
+        }
+        Dispatch dispatch = new Dispatch(start);
+        current = dispatch;
+        try {
+            super.dispatchEvent(event);
+        } finally {
+            long end = System.nanoTime();
+            dispatch.pause(end);
+            current = outer;
+            if (outer != null) {
+                outer.resume(end);
+            }
+            long own = dispatch.charged;
+            DISPATCH.recordNanos(own);
+            if (own >= thresholdNanos) {
+                slow(event, own, dispatch.stack);
+            }
+        }
+    }
+
+    // Called by the EDT's event loop, and by any nested loop, to wait for the next event
+    @Override
+    public AWTEvent getNextEvent() throws InterruptedException {
+        Dispatch waiting = current;
+        if (waiting != null) {
+            waiting.pause(System.nanoTime());
+        }
+        try {
+            return super.getNextEvent();
+        } finally {
+            if (waiting != null && current == waiting) {
+                waiting.resume(System.nanoTime());
+            }
+        }
+    }
+
+    /** Handlers with slow events, slowest total first. */
+    public List<HandlerStats> getStats() {
+        List<HandlerStats> list = new ArrayList<>(stats.values());
+        list.sort((a, b) -> Long.compare(b.getTotalMillis(), a.getTotalMillis()));
+        return list;
+    }
+
+    public String report() {
+        StringBuilder text = new StringBuilder("Slow EDT events by handler (threshold ")
+                .append(thresholdNanos / 1_000_000).append(" ms):");
+        for (HandlerStats s : getStats()) {
+            text.append(System.lineSeparator()).append(String.format("  %-48s %5d slow, %7d ms total, %6d ms max",
+                    s.getHandler(), s.getSlowCount(), s.getTotalMillis(), s.getMaxMillis()));
+        }
+        return text.toString();
+    }
+
+    private void slow(AWTEvent event, long nanos, StackTraceElement[] stack) {
+        String handler = stack == null ? null : handlerOf(stack);
+        if (handler == null) {
+            handler = describe(event);
+        }
+        HandlerStats handlerStats = stats.computeIfAbsent(handler, HandlerStats::new);
+        boolean first = handlerStats.add(nanos, stack);
+        if (first && stack != null) {
+            LOG.log(Level.WARNING, "EDT busy {0} ms in {1}:{2}",
+                    new Object[]{String.valueOf(nanos / 1_000_000), handler, format(stack)});
+        } else {
+            LOG.log(Level.WARNING, "EDT busy {0} ms in {1}", new Object[]{String.valueOf(nanos / 1_000_000), handler});
+        }
+    }
+
+    // Sampler thread: takes the EDT's stack once the innermost event has run past the threshold
+    private void sample() {
+        long period = Math.max(1, thresholdNanos / 4 / 1_000_000);
+        while (!stopped) {
+            try {
+                Thread.sleep(period);
+            } catch (InterruptedException e) {
+                return;
+            }
+            Dispatch dispatch = current;
+            Thread thread = edt;
+            if (dispatch == null || dispatch.stack != null || thread == null || !dispatch.running) {
+                continue;
+            }
+            if (dispatch.ownNanos(System.nanoTime()) >= thresholdNanos) {
+                StackTraceElement[] stack = thread.getStackTrace();
+                // Only keep it if the EDT is still working on that event
+                if (current == dispatch && dispatch.running) {
+                    dispatch.stack = stack;
+                }
+            }
+        }
+    }
+
+    // The outermost application method the innermost dispatch ran, or null if it ran none
+    static String handlerOf(StackTraceElement[] stack) {
+        int end = stack.length;
+        for (int i = 0; i < stack.length; i++) {
+            if (stack[i].getClassName().equals(EdtWatchdog.class.getName()) && stack[i].getMethodName().equals("dispatchEvent")) {
+                end = i;
+                break;
+            }
+        }
+        for (int i = end - 1; i >= 0; i--) {
+            StackTraceElement frame = stack[i];
+            if (isPlatform(frame.getClassName())) {
+                continue;
+            }
+            String method = frame.getMethodName();
+            if (method.startsWith("lambda$")) {
+                // A listener written in openEditTaskDialog is lambda$openEditTaskDialog$4 and counts as that method.
+                // One written in a constructor (lambda$new$0), a static initializer or another lambda
+                // (lambda$null$1) does not name anything useful, so the method it calls is the handler.
+                String owner = method.substring("lambda$".length(), Math.max("lambda$".length(), method.lastIndexOf('$')));
+                if (!owner.isEmpty() && !owner.equals("new") && !owner.equals("static") && !owner.equals("null")) {
+                    return simpleName(frame.getClassName()) + "." + owner;
+                }
+                continue;
+            }
+            if (isAnonymous(frame.getClassName())) {
+                continue; // The generated listener; the method it calls is the handler
+            }
+            if (method.startsWith("access$")) {
+                continue; // The accessor javac adds when such a listener calls a private method
+            }
+            return simpleName(frame.getClassName()) + "." + method;
+        }
+        return null;
+    }
+
+    private static String describe(AWTEvent event) {
+        Object source = event.getSource();
+        String type = event.getClass().getSimpleName();
+        return source == null ? type : type + " on " + simpleName(source.getClass().getName());
+    }
+
+    private static String format(StackTraceElement[] stack) {
+        StringBuilder text = new StringBuilder();
+        for (StackTraceElement frame : stack) {
+            text.append(System.lineSeparator()).append("\tat ").append(frame);
+        }
+        return text.toString();
+    }
+
+    private static boolean isPlatform(String className) {
+        for (String prefix : PLATFORM_PACKAGES) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Outer$1, Outer$1Local and the like
+    private static boolean isAnonymous(String className) {
+        int dollar = className.lastIndexOf('$');
+        return dollar >= 0 && dollar + 1 < className.length() && Character.isDigit(className.charAt(dollar + 1));
+    }
+
+    private static String simpleName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+}
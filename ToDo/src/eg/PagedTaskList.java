@@ -0,0 +1,208 @@
+package eg;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.IntConsumer;
+
+/**
+ * Read-only list over a tasks.txt too large to keep on the heap. Opening
+ * the file makes one sequential pass that records where every
+ * {@value #PAGE_ROWS}-th task starts; a task is then found by reading and
+ * parsing just its page. Parsed pages are kept in an LRU cache bounded by
+ * an estimated byte budget, so memory stays fixed however large the file
+ * is: the offset index costs 8 bytes per page, the cache at most its budget.
+ *
+ * <p>Rows are in file order, which for a snapshot written by the app is the
+ * visible priority order. The journal is not applied, so changes made since
+ * the last snapshot are not shown.
+ */
+public final class PagedTaskList extends AbstractList<ToDoListLogic.Task> implements RandomAccess, Closeable {
+
+    static final int PAGE_ROWS = 1024;
+
+    private static final int SCAN_WINDOW = 64 * 1024 * 1024;
+    // Rough heap cost of a parsed task besides its name: the Task, the name String and array headers
+    private static final int TASK_OVERHEAD = 80;
+
+    private final FileChannel channel;
+    // Byte offset of the first task of each page, then the file size
+    private final long[] pageOffsets;
+    private final int size;
+    private final long cacheBudget;
+    // Access-ordered, so the eldest entry is the least recently used page
+    private final LinkedHashMap<Integer, Page> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
+
+    private PagedTaskList(FileChannel channel, long[] pageOffsets, int size, long cacheBudget) {
+        this.channel = channel;
+        this.pageOffsets = pageOffsets;
+        this.size = size;
+        this.cacheBudget = cacheBudget;
+    }
+
+    /**
+     * Indexes the file and returns the list; {@code progress} receives the
+     * percentage of the file scanned so far.
+     */
+    public static PagedTaskList open(Path file, long cacheBudget, IntConsumer progress) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long fileSize = channel.size();
+            long[] offsets = new long[16];
+            int pages = 0;
+            long rows = 0;
+            long lineStart = 0;
+            int commas = 0;
+
+            for (long windowStart = 0; windowStart < fileSize; windowStart += SCAN_WINDOW) {
+                long windowSize = Math.min(SCAN_WINDOW, fileSize - windowStart);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowSize);
+                for (int i = 0; i < windowSize; i++) {
+                    byte b = window.get(i);
+                    if (b == ',') {
+                        commas++;
+                    } else if (b == '\n') {
+                        // Same rule as TaskFileLoader.parseLine: a task line has at least two commas
+                        if (commas >= 2) {
+                            if (rows % PAGE_ROWS == 0) {
+                                if (pages == offsets.length) {
+                                    offsets = Arrays.copyOf(offsets, pages * 2);
+                                }
+                                offsets[pages++] = lineStart;
+                            }
+                            rows++;
+                        }
+                        lineStart = windowStart + i + 1;
+                        commas = 0;
+                    }
+                }
+                progress.accept((int) ((windowStart + windowSize) * 100 / fileSize));
+            }
+            if (commas >= 2) {
+                // Last line without a newline
+                if (rows % PAGE_ROWS == 0) {
+                    offsets = Arrays.copyOf(offsets, pages + 1);
+                    offsets[pages++] = lineStart;
+                }
+                rows++;
+            }
+            if (rows > Integer.MAX_VALUE) {
+                throw new IOException("Too many tasks for one list: " + rows);
+            }
+
+            offsets = Arrays.copyOf(offsets, pages + 1);
+            offsets[pages] = fileSize;
+            return new PagedTaskList(channel, offsets, (int) rows, cacheBudget);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized ToDoListLogic.Task get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int pageNumber = index / PAGE_ROWS;
+        Page page = cache.get(pageNumber);
+        if (page == null) {
+            page = load(pageNumber);
+            cache.put(pageNumber, page);
+            cachedBytes += page.bytes;
+            evict();
+        }
+        return page.tasks[index % PAGE_ROWS];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // Estimated heap held by cached pages
+    public synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            cache.clear();
+            cachedBytes = 0;
+        }
+        channel.close();
+    }
+
+    // Drops least recently used pages until the cache fits its budget, always keeping the newest
+    private void evict() {
+        Iterator<Map.Entry<Integer, Page>> eldest = cache.entrySet().iterator();
+        while (cachedBytes > cacheBudget && cache.size() > 1) {
+            cachedBytes -= eldest.next().getValue().bytes;
+            eldest.remove();
+        }
+    }
+
+    private Page load(int pageNumber) {
+        long start = pageOffsets[pageNumber];
+        int length = (int) (pageOffsets[pageNumber + 1] - start);
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        try {
+            while (buffer.hasRemaining() && channel.read(buffer, start + buffer.position()) >= 0) {
+                // FileChannel may return short reads
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read " + length + " bytes at offset " + start, e);
+        }
+
+        int rows = Math.min(PAGE_ROWS, size - pageNumber * PAGE_ROWS);
+        ToDoListLogic.Task[] tasks = new ToDoListLogic.Task[rows];
+        long bytes = 0;
+        byte[] data = buffer.array();
+        byte[] line = new byte[256];
+        int row = 0;
+        int lineStart = 0;
+        while (row < rows && lineStart < length) {
+            int lineEnd = lineStart;
+            while (lineEnd < length && data[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            int lineLength = lineEnd - lineStart;
+            if (lineLength > line.length) {
+                line = new byte[Math.max(lineLength, line.length * 2)];
+            }
+            System.arraycopy(data, lineStart, line, 0, lineLength);
+            ToDoListLogic.Task task = TaskFileLoader.parseLine(line, lineLength);
+            if (task != null) {
+                tasks[row++] = task;
+                bytes += TASK_OVERHEAD + task.getName().length() * 2L;
+            }
+            lineStart = lineEnd + 1;
+        }
+        if (row < rows) {
+            throw new IllegalStateException("Task file changed while open: page " + pageNumber + " is short");
+        }
+        return new Page(tasks, bytes);
+    }
+
+    private static final class Page {
+        final ToDoListLogic.Task[] tasks;
+        final long bytes;
+
+        Page(ToDoListLogic.Task[] tasks, long bytes) {
+            this.tasks = tasks;
+            this.bytes = bytes;
+        }
+    }
+}
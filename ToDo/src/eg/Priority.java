@@ -0,0 +1,52 @@
+package eg;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Priority of a task. There is one instance per priority name, so tasks
+ * share it instead of each holding its own String, and its sort level is
+ * worked out once instead of on every comparison. High, Medium and Low sort
+ * in that order; any other name (a hand-edited tasks.txt may have one) is
+ * kept as written and sorts after them.
+ */
+public final class Priority {
+
+    public static final Priority HIGH = new Priority("High", 1);
+    public static final Priority MEDIUM = new Priority("Medium", 2);
+    public static final Priority LOW = new Priority("Low", 3);
+
+    private static final ConcurrentHashMap<String, Priority> BY_NAME = new ConcurrentHashMap<>();
+
+    static {
+        for (Priority priority : new Priority[]{HIGH, MEDIUM, LOW}) {
+            BY_NAME.put(priority.name, priority);
+        }
+    }
+
+    private final String name;
+    private final int level;
+
+    private Priority(String name, int level) {
+        this.name = name;
+        this.level = level;
+    }
+
+    public static Priority of(String name) {
+        Priority priority = BY_NAME.get(name);
+        return priority != null ? priority : BY_NAME.computeIfAbsent(name, n -> new Priority(n, Integer.MAX_VALUE));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // 1 for High, 2 for Medium, 3 for Low, Integer.MAX_VALUE for anything else
+    public int getLevel() {
+        return level;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
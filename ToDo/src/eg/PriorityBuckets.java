@@ -0,0 +1,315 @@
+package eg;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Tasks grouped by priority level, one TaskTree per bucket. The visible order is
+ * bucket 0 (High) first, then Medium, Low and finally anything with an
+ * unknown priority. Inside a bucket tasks keep their insertion order, which
+ * is ascending {@code id}, so a task can be found by its id.
+ *
+ * <p>{@link #share()} returns a copy in constant time that shares every
+ * tree node. It stays as it is until the next write, which may still change
+ * those nodes in place; {@link #seal()} rules that out, so from then on a
+ * write here copies the few nodes on its path instead.
+ */
+final class PriorityBuckets {
+
+    // High, Medium, Low and one catch-all bucket for unknown priorities
+    static final int BUCKETS = 4;
+
+    private static final Comparator<ToDoListLogic.Task> BY_ID = Comparator.comparingLong(task -> task.id);
+
+    private final TaskTree.Node[] buckets;
+    private final int[] sizes;
+    private int size;
+    // Tree nodes created under this token are changed in place; null for a shared copy, which cannot be written
+    private Object edit;
+    // The last shared copy, until the next write
+    private PriorityBuckets shared;
+
+    PriorityBuckets() {
+        buckets = new TaskTree.Node[BUCKETS];
+        for (int b = 0; b < BUCKETS; b++) {
+            buckets[b] = TaskTree.EMPTY;
+        }
+        sizes = new int[BUCKETS];
+        edit = new Object();
+    }
+
+    private PriorityBuckets(PriorityBuckets from) {
+        buckets = from.buckets.clone();
+        sizes = from.sizes.clone();
+        size = from.size;
+    }
+
+    static int bucketOf(ToDoListLogic.Task task) {
+        int level = task.getPriorityLevel();
+        return level >= 1 && level < BUCKETS ? level - 1 : BUCKETS - 1;
+    }
+
+    // The buckets as they are now; unchanged by later writes only once seal() has been called
+    PriorityBuckets share() {
+        if (shared == null) {
+            shared = new PriorityBuckets(this);
+        }
+        return shared;
+    }
+
+    // Makes every copy shared so far permanent: later writes copy the nodes they would change
+    void seal() {
+        edit = new Object();
+    }
+
+    // Appends the task to its bucket and returns its position in the visible order
+    int add(ToDoListLogic.Task task) {
+        int bucket = bucketOf(task);
+        buckets[bucket] = TaskTree.insert(buckets[bucket], task, edit());
+        sizes[bucket]++;
+        size++;
+        return offsetOf(bucket) + sizes[bucket] - 1;
+    }
+
+    // Appends a batch in order
+    void addAll(List<ToDoListLogic.Task> batch) {
+        Object edit = edit();
+        for (ToDoListLogic.Task task : batch) {
+            int bucket = bucketOf(task);
+            buckets[bucket] = TaskTree.insert(buckets[bucket], task, edit);
+            sizes[bucket]++;
+        }
+        size += batch.size();
+    }
+
+    // Inserts the task at its id position within its bucket and returns its ordinal
+    int insert(ToDoListLogic.Task task) {
+        int bucket = bucketOf(task);
+        buckets[bucket] = TaskTree.insert(buckets[bucket], task, edit());
+        sizes[bucket]++;
+        size++;
+        return offsetOf(bucket) + TaskTree.indexOf(buckets[bucket], task.id);
+    }
+
+    // Removes the task if present and returns the ordinal it had, or -1
+    int remove(ToDoListLogic.Task task) {
+        int bucket = bucketOf(task);
+        int pos = TaskTree.indexOf(buckets[bucket], task.id);
+        if (pos < 0) {
+            return -1;
+        }
+        removeAt(bucket, pos);
+        return offsetOf(bucket) + pos;
+    }
+
+    // Puts the task in place of the one with its id and returns its ordinal, or -1 if there is none
+    int replace(ToDoListLogic.Task task) {
+        int bucket = bucketOf(task);
+        int pos = TaskTree.indexOf(buckets[bucket], task.id);
+        if (pos < 0) {
+            return -1;
+        }
+        buckets[bucket] = TaskTree.set(buckets[bucket], pos, task, edit());
+        return offsetOf(bucket) + pos;
+    }
+
+    // Removes all the given tasks; a bucket losing many of them is rebuilt in one pass instead of one removal per task
+    void removeAll(List<ToDoListLogic.Task> remove) {
+        for (List<ToDoListLogic.Task> group : byBucketSortedById(remove)) {
+            if (group.isEmpty()) {
+                continue;
+            }
+            int b = bucketOf(group.get(0));
+            if (isFew(group, sizes[b])) {
+                for (ToDoListLogic.Task task : group) {
+                    remove(task);
+                }
+                continue;
+            }
+            ToDoListLogic.Task[] bucket = toArray(b);
+            int write = 0;
+            int next = 0;
+            for (ToDoListLogic.Task task : bucket) {
+                while (next < group.size() && group.get(next).id < task.id) {
+                    next++;
+                }
+                if (next < group.size() && group.get(next).id == task.id) {
+                    next++;
+                } else {
+                    bucket[write++] = task;
+                }
+            }
+            rebuild(b, bucket, write);
+        }
+    }
+
+    // Inserts the tasks at their id positions; a bucket gaining many of them is merged once
+    void insertAll(List<ToDoListLogic.Task> insert) {
+        for (List<ToDoListLogic.Task> group : byBucketSortedById(insert)) {
+            if (group.isEmpty()) {
+                continue;
+            }
+            int b = bucketOf(group.get(0));
+            if (isFew(group, sizes[b])) {
+                for (ToDoListLogic.Task task : group) {
+                    insert(task);
+                }
+                continue;
+            }
+            ToDoListLogic.Task[] bucket = toArray(b);
+            ToDoListLogic.Task[] merged = new ToDoListLogic.Task[bucket.length + group.size()];
+            int i = 0;
+            int j = 0;
+            for (int k = 0; k < merged.length; k++) {
+                if (j == group.size() || i < bucket.length && bucket[i].id < group.get(j).id) {
+                    merged[k] = bucket[i++];
+                } else {
+                    merged[k] = group.get(j++);
+                }
+            }
+            rebuild(b, merged, merged.length);
+        }
+    }
+
+    // Ordinal of the task in the visible order, or -1 if it is not here
+    int indexOf(ToDoListLogic.Task task) {
+        return indexOf(bucketOf(task), task.id);
+    }
+
+    // Ordinal of the task with this id, or -1; the id alone does not say which bucket to look in
+    int indexOf(long id) {
+        for (int b = 0; b < BUCKETS; b++) {
+            int index = indexOf(b, id);
+            if (index >= 0) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    ToDoListLogic.Task find(long id) {
+        for (TaskTree.Node bucket : buckets) {
+            ToDoListLogic.Task task = TaskTree.find(bucket, id);
+            if (task != null) {
+                return task;
+            }
+        }
+        return null;
+    }
+
+    // Id of the last task in the bucket, or 0 if it is empty; appended tasks must have a higher one
+    long lastId(int bucket) {
+        return TaskTree.lastId(buckets[bucket]);
+    }
+
+    ToDoListLogic.Task get(int ordinal) {
+        checkIndex(ordinal);
+        for (int b = 0; b < BUCKETS; b++) {
+            if (ordinal < sizes[b]) {
+                return TaskTree.get(buckets[b], ordinal);
+            }
+            ordinal -= sizes[b];
+        }
+        throw new IllegalStateException("Bucket sizes out of sync");
+    }
+
+    ToDoListLogic.Task remove(int ordinal) {
+        checkIndex(ordinal);
+        for (int b = 0; b < BUCKETS; b++) {
+            if (ordinal < sizes[b]) {
+                ToDoListLogic.Task task = TaskTree.get(buckets[b], ordinal);
+                removeAt(b, ordinal);
+                return task;
+            }
+            ordinal -= sizes[b];
+        }
+        throw new IllegalStateException("Bucket sizes out of sync");
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Copies every task into the array in visible order
+    void copyTo(ToDoListLogic.Task[] into) {
+        int at = 0;
+        for (TaskTree.Node bucket : buckets) {
+            at = TaskTree.copyTo(bucket, into, at);
+        }
+    }
+
+    // The tree leaves in visible order, for walking every task without a lookup per position
+    List<TaskTree.Node> leaves() {
+        List<TaskTree.Node> leaves = new ArrayList<>(size / TaskTree.LEAF + BUCKETS);
+        for (TaskTree.Node bucket : buckets) {
+            TaskTree.leaves(bucket, leaves);
+        }
+        return leaves;
+    }
+
+    private Object edit() {
+        if (edit == null) {
+            throw new IllegalStateException("Shared buckets cannot change");
+        }
+        shared = null;
+        return edit;
+    }
+
+    private void removeAt(int bucket, int pos) {
+        buckets[bucket] = TaskTree.remove(buckets[bucket], pos, edit());
+        sizes[bucket]--;
+        size--;
+    }
+
+    private void rebuild(int bucket, ToDoListLogic.Task[] tasks, int count) {
+        buckets[bucket] = TaskTree.build(tasks, 0, count, edit());
+        size += count - sizes[bucket];
+        sizes[bucket] = count;
+    }
+
+    private ToDoListLogic.Task[] toArray(int bucket) {
+        ToDoListLogic.Task[] tasks = new ToDoListLogic.Task[sizes[bucket]];
+        TaskTree.copyTo(buckets[bucket], tasks, 0);
+        return tasks;
+    }
+
+    private int indexOf(int bucket, long id) {
+        int pos = TaskTree.indexOf(buckets[bucket], id);
+        return pos < 0 ? -1 : offsetOf(bucket) + pos;
+    }
+
+    // A few tree edits beat rebuilding the whole bucket; the rebuild only pays off for large edits
+    private static boolean isFew(List<ToDoListLogic.Task> group, int bucketSize) {
+        return group.size() < 16 || group.size() < bucketSize / 64;
+    }
+
+    private static List<List<ToDoListLogic.Task>> byBucketSortedById(List<ToDoListLogic.Task> tasks) {
+        List<List<ToDoListLogic.Task>> groups = new ArrayList<>(BUCKETS);
+        for (int b = 0; b < BUCKETS; b++) {
+            groups.add(new ArrayList<>());
+        }
+        for (ToDoListLogic.Task task : tasks) {
+            groups.get(bucketOf(task)).add(task);
+        }
+        for (List<ToDoListLogic.Task> group : groups) {
+            group.sort(BY_ID);
+        }
+        return groups;
+    }
+
+    // Ordinal of the first task in the given bucket
+    private int offsetOf(int bucket) {
+        int offset = 0;
+        for (int b = 0; b < bucket; b++) {
+            offset += sizes[b];
+        }
+        return offset;
+    }
+
+    private void checkIndex(int ordinal) {
+        if (ordinal < 0 || ordinal >= size) {
+            throw new IndexOutOfBoundsException("Index: " + ordinal + ", Size: " + size);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package eg;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * On-disk formats for the task snapshot that TaskJournal compacts into.
+ * CSV is the plain tasks.txt format and stays the default; BINARY is the
+ * compact {@link BinaryTaskFormat}.
+ */
+public enum SnapshotFormat {
+
+    CSV("tasks.txt") {
+        @Override
+        public List<ToDoListLogic.Task> read(Path file, IntConsumer progress) throws IOException {
+            return TaskFileLoader.load(file, progress);
+        }
+
+        @Override
+        public void write(Path file, List<ToDoListLogic.Task> tasks, long journalSeq) throws IOException {
+            TaskExporter.writeTasksTxt(file, tasks, SEQ_HEADER + journalSeq);
+        }
+
+        @Override
+        public long readJournalSeq(Path file) throws IOException {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String first = reader.readLine();
+                if (first != null && first.startsWith(SEQ_HEADER)) {
+                    return Long.parseLong(first.substring(SEQ_HEADER.length()).trim());
+                }
+            }
+            return 0; // A plain tasks.txt written before the journal existed
+        }
+    },
+
+    BINARY("tasks.bin") {
+        @Override
+        public List<ToDoListLogic.Task> read(Path file, IntConsumer progress) throws IOException {
+            List<ToDoListLogic.Task> tasks = BinaryTaskFormat.read(file);
+            progress.accept(100);
+            return tasks;
+        }
+
+        @Override
+        public void write(Path file, List<ToDoListLogic.Task> tasks, long journalSeq) throws IOException {
+            TaskExporter.writeBinary(file, tasks, journalSeq);
+        }
+
+        @Override
+        public long readJournalSeq(Path file) throws IOException {
+            return BinaryTaskFormat.readJournalSeq(file);
+        }
+    };
+
+    // First line of a CSV snapshot written by the journal; the loader skips it since it has no commas
+    private static final String SEQ_HEADER = "#journal-seq=";
+
+    private final String defaultFileName;
+
+    SnapshotFormat(String defaultFileName) {
+        this.defaultFileName = defaultFileName;
+    }
+
+    public String getDefaultFileName() {
+        return defaultFileName;
+    }
+
+    public abstract List<ToDoListLogic.Task> read(Path file, IntConsumer progress) throws IOException;
+
+    public abstract void write(Path file, List<ToDoListLogic.Task> tasks, long journalSeq) throws IOException;
+
+    // Sequence number of the last journal record already contained in the snapshot
+    public abstract long readJournalSeq(Path file) throws IOException;
+}
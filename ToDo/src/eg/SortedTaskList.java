@@ -0,0 +1,202 @@
+package eg;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Tasks kept sorted by a comparator, in chunks of at most {@value #CHUNK}
+ * tasks with the row each chunk starts at. A task is placed by binary
+ * search, first over the chunks' last tasks and then within one chunk, so
+ * an insert or removal shifts at most one chunk and the chunk start rows
+ * after it instead of every later row; a full chunk is split in two. Row
+ * lookups binary search the chunk starts.
+ *
+ * <p>The comparator must be a total order on the tasks kept, as a
+ * {@link TaskOrder} comparator is with its creation order tie-break, and
+ * the tasks must not change while in the list. Not thread-safe.
+ */
+final class SortedTaskList {
+
+    static final int CHUNK = 1024;
+    // Chunks filled from a sorted array start this full, leaving room to insert before the first split
+    private static final int FILL = CHUNK * 3 / 4;
+
+    private final Comparator<ToDoListLogic.Task> comparator;
+    private ToDoListLogic.Task[][] chunks;
+    private int[] sizes;
+    // Row of the first task of each chunk
+    private int[] starts;
+    private int chunkCount;
+    private int size;
+
+    // Takes tasks already in comparator order
+    SortedTaskList(Comparator<ToDoListLogic.Task> comparator, ToDoListLogic.Task[] sorted) {
+        this.comparator = comparator;
+        int count = Math.max(1, (sorted.length + FILL - 1) / FILL);
+        chunks = new ToDoListLogic.Task[count][];
+        sizes = new int[count];
+        starts = new int[count];
+        for (int c = 0; c < count; c++) {
+            int from = c * FILL;
+            int length = Math.min(FILL, sorted.length - from);
+            chunks[c] = new ToDoListLogic.Task[CHUNK];
+            System.arraycopy(sorted, from, chunks[c], 0, length);
+            sizes[c] = length;
+            starts[c] = from;
+        }
+        chunkCount = count;
+        size = sorted.length;
+    }
+
+    int size() {
+        return size;
+    }
+
+    ToDoListLogic.Task get(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Index: " + row + ", Size: " + size);
+        }
+        int c = chunkOf(row);
+        return chunks[c][row - starts[c]];
+    }
+
+    // Inserts the task at its place in the order and returns its row
+    int add(ToDoListLogic.Task task) {
+        int c = chunkFor(task, false);
+        int position = search(c, task, false);
+        if (sizes[c] == CHUNK) {
+            split(c);
+            if (position > sizes[c]) {
+                position -= sizes[c];
+                c++;
+            }
+        }
+        ToDoListLogic.Task[] chunk = chunks[c];
+        System.arraycopy(chunk, position, chunk, position + 1, sizes[c] - position);
+        chunk[position] = task;
+        sizes[c]++;
+        shiftStarts(c + 1, 1);
+        size++;
+        return starts[c] + position;
+    }
+
+    // The row add would put the task at
+    int find(ToDoListLogic.Task task) {
+        int c = chunkFor(task, false);
+        return starts[c] + search(c, task, false);
+    }
+
+    // Removes the task comparing equal to this one; returns the row it had, or -1 if there is none
+    int remove(ToDoListLogic.Task task) {
+        if (size == 0) {
+            return -1;
+        }
+        int c = chunkFor(task, true);
+        int position = search(c, task, true);
+        ToDoListLogic.Task[] chunk = chunks[c];
+        if (position == sizes[c] || comparator.compare(chunk[position], task) != 0) {
+            return -1;
+        }
+        int row = starts[c] + position;
+        System.arraycopy(chunk, position + 1, chunk, position, sizes[c] - position - 1);
+        chunk[--sizes[c]] = null;
+        shiftStarts(c + 1, -1);
+        size--;
+        if (sizes[c] == 0 && chunkCount > 1) {
+            removeChunk(c);
+        }
+        return row;
+    }
+
+    ToDoListLogic.Task[] toArray() {
+        ToDoListLogic.Task[] tasks = new ToDoListLogic.Task[size];
+        for (int c = 0; c < chunkCount; c++) {
+            System.arraycopy(chunks[c], 0, tasks, starts[c], sizes[c]);
+        }
+        return tasks;
+    }
+
+    // The chunk whose last task is the first one after the task (or, when inclusive, not before it); else the last chunk
+    private int chunkFor(ToDoListLogic.Task task, boolean inclusive) {
+        int low = 0;
+        int high = chunkCount - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int cmp = comparator.compare(chunks[mid][sizes[mid] - 1], task);
+            if (cmp < 0 || cmp == 0 && !inclusive) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Position in chunk c of the first task after the task (or, when inclusive, not before it)
+    private int search(int c, ToDoListLogic.Task task, boolean inclusive) {
+        ToDoListLogic.Task[] chunk = chunks[c];
+        int low = 0;
+        int high = sizes[c];
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int cmp = comparator.compare(chunk[mid], task);
+            if (cmp < 0 || cmp == 0 && !inclusive) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int chunkOf(int row) {
+        int low = 0;
+        int high = chunkCount - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (starts[mid] <= row) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    // Moves the upper half of full chunk c into a new chunk after it
+    private void split(int c) {
+        if (chunkCount == chunks.length) {
+            int capacity = chunkCount * 2;
+            chunks = Arrays.copyOf(chunks, capacity);
+            sizes = Arrays.copyOf(sizes, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+        }
+        System.arraycopy(chunks, c + 1, chunks, c + 2, chunkCount - c - 1);
+        System.arraycopy(sizes, c + 1, sizes, c + 2, chunkCount - c - 1);
+        System.arraycopy(starts, c + 1, starts, c + 2, chunkCount - c - 1);
+        chunkCount++;
+
+        int half = CHUNK / 2;
+        ToDoListLogic.Task[] upper = new ToDoListLogic.Task[CHUNK];
+        System.arraycopy(chunks[c], half, upper, 0, CHUNK - half);
+        Arrays.fill(chunks[c], half, CHUNK, null);
+        chunks[c + 1] = upper;
+        sizes[c] = half;
+        sizes[c + 1] = CHUNK - half;
+        starts[c + 1] = starts[c] + half;
+    }
+
+    private void removeChunk(int c) {
+        System.arraycopy(chunks, c + 1, chunks, c, chunkCount - c - 1);
+        System.arraycopy(sizes, c + 1, sizes, c, chunkCount - c - 1);
+        System.arraycopy(starts, c + 1, starts, c, chunkCount - c - 1);
+        chunkCount--;
+        chunks[chunkCount] = null;
+    }
+
+    private void shiftStarts(int from, int delta) {
+        for (int c = from; c < chunkCount; c++) {
+            starts[c] += delta;
+        }
+    }
+}
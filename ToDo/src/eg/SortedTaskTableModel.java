@@ -0,0 +1,223 @@
+package eg;
+
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Table model showing the store's tasks in a {@link TaskOrder} other than
+ * the store's own, kept up to date change by change instead of by sorting
+ * again: an added task is put in place by binary search in a
+ * SortedTaskList and fires one row-inserted event, a removal one
+ * row-deleted event, and a status change either updates its row or moves
+ * it.
+ *
+ * <p>Tasks never change once made, a status change replaces the task, so a
+ * row always holds the task as the change that put it there left it and is
+ * never out of place. Changes come through the logic's TaskChangeBus; a frame
+ * with many of them is applied in one go and repaints the table once.
+ */
+public final class SortedTaskTableModel extends AbstractTableModel implements TaskChangeBus.Subscriber {
+
+    // Batches larger than this are sorted on their own and merged in with one refresh, not inserted row by row
+    private static final int MERGE_MIN = 256;
+    // A flush with more changes than this repaints the table once instead of firing an event per row
+    private static final int ROW_EVENTS_MAX = 64;
+
+    private final TaskStore store;
+    private final TaskChangeBus bus;
+    private final TaskOrder order;
+    // Only touched on the EDT. rows is null until the first sort is in; while a sort runs, changes wait in pending
+    private SortedTaskList rows;
+    private TaskIdMap byId = new TaskIdMap();
+    private List<TaskChange> pending = new ArrayList<>();
+    // Bumped by every sort after the first, so an older sort finishing late is dropped
+    private int sortGeneration;
+
+    private SortedTaskTableModel(ToDoListLogic logic, TaskOrder order) {
+        this.store = logic.getStore();
+        this.bus = logic.getChangeBus();
+        this.order = order;
+    }
+
+    /**
+     * Sorts the logic's tasks and returns a model that follows them from
+     * then on. The sort takes a while for a large store, so call this off
+     * the EDT; the model shows no rows until the sorted tasks reach the EDT.
+     */
+    public static SortedTaskTableModel attach(ToDoListLogic logic, TaskOrder order) {
+        SortedTaskTableModel model = new SortedTaskTableModel(logic, order);
+        // The snapshot ends where the subscription's changes begin, so none is missed or applied twice
+        TaskStore.Snapshot start = model.bus.subscribe(model);
+        try {
+            ToDoListLogic.Task[] sorted = order.sort(start);
+            SwingUtilities.invokeLater(() -> model.install(sorted, 0));
+        } catch (RuntimeException | Error e) {
+            model.detach();
+            throw e;
+        }
+        return model;
+    }
+
+    // Stops following the store; call when the table showing this model goes away
+    public void detach() {
+        bus.unsubscribe(this);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows == null ? 0 : rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return TaskTableModel.COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return TaskTableModel.COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        ToDoListLogic.Task task = rows.get(row);
+        switch (column) {
+            case 0:
+                return task.getName();
+            case 1:
+                return task.getPriority();
+            default:
+                return task.getStatus();
+        }
+    }
+
+    @Override
+    public void changed(List<TaskChange> changes) {
+        if (pending != null) {
+            pending.addAll(changes);
+            return;
+        }
+        boolean rowEvents = changes.size() <= ROW_EVENTS_MAX;
+        apply(changes, rowEvents);
+        if (!rowEvents) {
+            fireTableDataChanged();
+        }
+    }
+
+    // Changes were dropped, so sort the store again; the current rows stay on screen until then
+    @Override
+    public void refreshAll() {
+        pending = new ArrayList<>();
+        int generation = ++sortGeneration;
+        CompletableFuture.supplyAsync(() -> order.sort(store.snapshot()))
+                .thenAccept(sorted -> SwingUtilities.invokeLater(() -> install(sorted, generation)));
+    }
+
+    private void install(ToDoListLogic.Task[] sorted, int generation) {
+        if (generation != sortGeneration) {
+            return;
+        }
+        rows = new SortedTaskList(order.comparator(), sorted);
+        byId = new TaskIdMap();
+        byId.ensureCapacity(sorted.length);
+        for (ToDoListLogic.Task task : sorted) {
+            byId.put(task);
+        }
+        List<TaskChange> changes = pending;
+        pending = null;
+        apply(changes, false);
+        fireTableDataChanged();
+    }
+
+    private void apply(List<TaskChange> changes, boolean rowEvents) {
+        for (TaskChange change : changes) {
+            switch (change.getType()) {
+                case ADDED:
+                case STATUS_CHANGED:
+                    put(change.getTask(), rowEvents);
+                    break;
+                case REMOVED:
+                    remove(change.getTask().id, rowEvents);
+                    break;
+                default:
+                    putAll(change.getBatch(), rowEvents);
+                    break;
+            }
+        }
+    }
+
+    // Adds the task, or moves the row of the task with its id to where the replacement belongs
+    private void put(ToDoListLogic.Task task, boolean rowEvents) {
+        ToDoListLogic.Task old = byId.get(task.id);
+        byId.put(task);
+        if (old == null) {
+            int row = rows.add(task);
+            if (rowEvents) {
+                fireTableRowsInserted(row, row);
+            }
+            return;
+        }
+        int from = rows.remove(old);
+        if (!rowEvents) {
+            rows.add(task);
+        } else if (rows.find(task) == from) {
+            // Same place in the order, as when the key that changed is not sorted on
+            rows.add(task);
+            fireTableRowsUpdated(from, from);
+        } else {
+            // The table must see the row count drop before the row comes back elsewhere
+            fireTableRowsDeleted(from, from);
+            int to = rows.add(task);
+            fireTableRowsInserted(to, to);
+        }
+    }
+
+    private void putAll(List<ToDoListLogic.Task> batch, boolean rowEvents) {
+        if (batch.size() < MERGE_MIN) {
+            for (ToDoListLogic.Task task : batch) {
+                put(task, rowEvents);
+            }
+            return;
+        }
+        ToDoListLogic.Task[] added = order.sort(batch);
+        for (ToDoListLogic.Task task : added) {
+            ToDoListLogic.Task old = byId.get(task.id);
+            if (old != null) {
+                rows.remove(old);
+            }
+            byId.put(task);
+        }
+        rows = new SortedTaskList(order.comparator(), merge(rows.toArray(), added));
+        if (rowEvents) {
+            fireTableDataChanged();
+        }
+    }
+
+    private void remove(long id, boolean rowEvents) {
+        ToDoListLogic.Task old = byId.remove(id);
+        if (old == null) {
+            return; // Added and removed before the sort was taken
+        }
+        int row = rows.remove(old);
+        if (rowEvents) {
+            fireTableRowsDeleted(row, row);
+        }
+    }
+
+    private ToDoListLogic.Task[] merge(ToDoListLogic.Task[] a, ToDoListLogic.Task[] b) {
+        ToDoListLogic.Task[] merged = new ToDoListLogic.Task[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < merged.length; k++) {
+            if (j == b.length || i < a.length && order.comparator().compare(a[i], b[j]) <= 0) {
+                merged[k] = a[i++];
+            } else {
+                merged[k] = b[j++];
+            }
+        }
+        return merged;
+    }
+}
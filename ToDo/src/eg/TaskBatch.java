@@ -0,0 +1,46 @@
+package eg;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A set of edits addressed by task id, applied all at once by
+ * {@link TaskStore#applyBatch}. Setting the status of the same task twice
+ * keeps the last value; a task that is also removed only gets removed.
+ * Not thread-safe; build it on one thread and hand it over.
+ */
+public final class TaskBatch {
+
+    private final Map<Long, TaskStatus> statuses = new LinkedHashMap<>();
+    private final Set<Long> removals = new LinkedHashSet<>();
+
+    public TaskBatch setStatus(long id, TaskStatus status) {
+        statuses.put(id, status);
+        return this;
+    }
+
+    public TaskBatch remove(long id) {
+        removals.add(id);
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return statuses.isEmpty() && removals.isEmpty();
+    }
+
+    // Number of distinct edits
+    public int size() {
+        return statuses.size() + removals.size();
+    }
+
+    Map<Long, TaskStatus> getStatuses() {
+        return Collections.unmodifiableMap(statuses);
+    }
+
+    Set<Long> getRemovals() {
+        return Collections.unmodifiableSet(removals);
+    }
+}
@@ -0,0 +1,96 @@
+package eg;
+
+import java.util.List;
+
+/**
+ * One store change as TaskChangeBus hands it to its subscribers: what
+ * happened, to which task, where, and the state it left. The size is
+ * copied when the change is made, so a subscriber reading it on the EDT sees
+ * this change rather than whatever the store holds by then.
+ */
+public final class TaskChange {
+
+    public enum Type {
+        ADDED,
+        BATCH_ADDED,
+        REMOVED,
+        STATUS_CHANGED
+    }
+
+    private final Type type;
+    private final int index;
+    private final ToDoListLogic.Task task;
+    private final List<ToDoListLogic.Task> batch;
+    private final TaskStatus status;
+    private final TaskStatus previous;
+    private final int size;
+    // The store write that made the change; see TaskStore.writeVersion()
+    final long version;
+
+    private TaskChange(Type type, int index, ToDoListLogic.Task task, List<ToDoListLogic.Task> batch,
+                       TaskStatus status, TaskStatus previous, int size, long version) {
+        this.type = type;
+        this.index = index;
+        this.task = task;
+        this.batch = batch;
+        this.status = status;
+        this.previous = previous;
+        this.size = size;
+        this.version = version;
+    }
+
+    static TaskChange added(int index, ToDoListLogic.Task task, int size, long version) {
+        return new TaskChange(Type.ADDED, index, task, null, task.getStatus(), null, size, version);
+    }
+
+    static TaskChange batchAdded(List<ToDoListLogic.Task> batch, int size, long version) {
+        return new TaskChange(Type.BATCH_ADDED, -1, null, batch, null, null, size, version);
+    }
+
+    static TaskChange removed(int index, ToDoListLogic.Task task, int size, long version) {
+        return new TaskChange(Type.REMOVED, index, task, null, task.getStatus(), null, size, version);
+    }
+
+    static TaskChange statusChanged(int index, ToDoListLogic.Task task, TaskStatus previous, int size, long version) {
+        return new TaskChange(Type.STATUS_CHANGED, index, task, null, task.getStatus(), previous, size, version);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    // Position in the store's order at the time of the change; -1 for a batch
+    public int getIndex() {
+        return index;
+    }
+
+    // The task as the change left it; null for a batch
+    public ToDoListLogic.Task getTask() {
+        return task;
+    }
+
+    // The tasks of a batch, in the order they were added; null otherwise
+    public List<ToDoListLogic.Task> getBatch() {
+        return batch;
+    }
+
+    // The task's status right after the change; null for a batch
+    public TaskStatus getStatus() {
+        return status;
+    }
+
+    // The status before a status change; null otherwise
+    public TaskStatus getPrevious() {
+        return previous;
+    }
+
+    // Number of tasks in the store right after the change
+    public int getSize() {
+        return size;
+    }
+
+    // True if the change adds, removes or moves a task with this status
+    public boolean touches(TaskStatus filter) {
+        return type == Type.BATCH_ADDED || status == filter || previous == filter;
+    }
+}
@@ -0,0 +1,205 @@
+package eg;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hands store changes to Swing code in batches instead of one EDT event per
+ * change. Each change becomes a {@link TaskChange} queued for every
+ * subscriber; at most once per {@value #FLUSH_MILLIS} ms the queues are
+ * drained on the EDT and each subscriber gets everything since its last
+ * batch in one call, so an import or bulk edit of thousands of tasks costs
+ * one repaint per frame rather than thousands.
+ *
+ * <p>Producers never wait for the EDT: queuing a change is a short append
+ * under the subscriber's own lock. A change is only delivered once the
+ * store has published the write that made it, so a subscriber reading the
+ * store in response finds the change there; a flush that comes too early
+ * leaves it queued for the next frame. A subscriber that falls further
+ * behind than its queue holds loses the queued changes and gets
+ * {@link Subscriber#refreshAll()} instead, and must read the store again.
+ *
+ * <p>A bus stays registered with its store for as long as the store lives,
+ * so there is one per store, from {@link TaskStore#getChangeBus()}.
+ */
+public final class TaskChangeBus implements TaskStore.ChangeListener {
+
+    /** Called on the EDT only. */
+    public interface Subscriber {
+        // Every change since the last call, in the order the store made them
+        void changed(List<TaskChange> changes);
+
+        // Replaces changed(...) when changes were dropped; nothing queued before this call will arrive
+        void refreshAll();
+    }
+
+    static final int FLUSH_MILLIS = 16;
+    // Changes a subscriber may have waiting before the queue is dropped for a refresh
+    static final int QUEUE_CAPACITY = 10_000;
+    // One recording per subscriber per flush: the time the table model took to apply the batch
+    private static final TaskMetrics.Latency DELIVER = TaskMetrics.latency("ui.refresh");
+    private static final TaskMetrics.Counter CHANGES_DELIVERED = TaskMetrics.counter("ui.changes");
+    private static final TaskMetrics.Counter REFRESH_ALL = TaskMetrics.counter("ui.refreshAll");
+
+    private final TaskStore store;
+    private final int capacity;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    // Set when a flush is due; cleared by the flush, so changes arriving during one schedule the next
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Timer flushTimer;
+
+    TaskChangeBus(TaskStore store) {
+        this(store, FLUSH_MILLIS, QUEUE_CAPACITY);
+    }
+
+    TaskChangeBus(TaskStore store, int flushMillis, int capacity) {
+        this.store = store;
+        this.capacity = capacity;
+        flushTimer = new Timer(flushMillis, e -> flush());
+        flushTimer.setRepeats(false);
+        store.addChangeListener(this);
+    }
+
+    // Changes made from now on reach the subscriber, and the returned snapshot holds everything before them; safe
+    // to call from any thread
+    public TaskStore.Snapshot subscribe(Subscriber subscriber) {
+        return store.snapshotWith(() -> subscriptions.add(new Subscription(subscriber)));
+    }
+
+    public void unsubscribe(Subscriber subscriber) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.subscriber == subscriber) {
+                subscription.cancelled = true;
+                subscriptions.remove(subscription);
+            }
+        }
+    }
+
+    @Override
+    public void taskAdded(int index, ToDoListLogic.Task task) {
+        if (!subscriptions.isEmpty()) {
+            publish(TaskChange.added(index, task, store.size(), store.writeVersion()));
+        }
+    }
+
+    @Override
+    public void tasksAdded(List<ToDoListLogic.Task> batch) {
+        if (!subscriptions.isEmpty()) {
+            publish(TaskChange.batchAdded(batch, store.size(), store.writeVersion()));
+        }
+    }
+
+    @Override
+    public void taskRemoved(int index, ToDoListLogic.Task task) {
+        if (!subscriptions.isEmpty()) {
+            publish(TaskChange.removed(index, task, store.size(), store.writeVersion()));
+        }
+    }
+
+    @Override
+    public void statusChanged(int index, ToDoListLogic.Task task, TaskStatus previous) {
+        if (!subscriptions.isEmpty()) {
+            publish(TaskChange.statusChanged(index, task, previous, store.size(), store.writeVersion()));
+        }
+    }
+
+    // Called under the store's write lock
+    private void publish(TaskChange change) {
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(change);
+        }
+        if (scheduled.compareAndSet(false, true)) {
+            if (SwingUtilities.isEventDispatchThread()) {
+                flushTimer.restart();
+            } else {
+                SwingUtilities.invokeLater(flushTimer::restart);
+            }
+        }
+    }
+
+    private void flush() {
+        scheduled.set(false);
+        long published = store.publishedVersion();
+        boolean held = false;
+        for (Subscription subscription : subscriptions) {
+            held |= subscription.deliver(published);
+        }
+        if (held && scheduled.compareAndSet(false, true)) {
+            flushTimer.restart();
+        }
+    }
+
+    private final class Subscription {
+        final Subscriber subscriber;
+        volatile boolean cancelled;
+        // Guarded by this
+        private List<TaskChange> queue = new ArrayList<>();
+        private boolean overflowed;
+        // Version of the last change offered, which a refresh after an overflow must wait for
+        private long lastVersion;
+
+        Subscription(Subscriber subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        synchronized void offer(TaskChange change) {
+            lastVersion = change.version;
+            if (overflowed) {
+                return;
+            }
+            if (queue.size() == capacity) {
+                overflowed = true;
+                queue = new ArrayList<>();
+                return;
+            }
+            queue.add(change);
+        }
+
+        // Delivers the changes the store has published; returns true if any are held back for later
+        boolean deliver(long published) {
+            List<TaskChange> changes;
+            boolean refresh;
+            boolean held;
+            synchronized (this) {
+                refresh = overflowed;
+                if (refresh) {
+                    if (lastVersion > published) {
+                        return true;
+                    }
+                    changes = queue;
+                    queue = new ArrayList<>();
+                    held = false;
+                } else {
+                    int ready = 0;
+                    while (ready < queue.size() && queue.get(ready).version <= published) {
+                        ready++;
+                    }
+                    if (ready == 0) {
+                        return !queue.isEmpty();
+                    }
+                    held = ready < queue.size();
+                    changes = held ? new ArrayList<>(queue.subList(0, ready)) : queue;
+                    queue = held ? new ArrayList<>(queue.subList(ready, queue.size())) : new ArrayList<>();
+                }
+                overflowed = false;
+            }
+            if (cancelled) {
+                return false;
+            }
+            long start = TaskMetrics.now();
+            if (refresh) {
+                subscriber.refreshAll();
+                REFRESH_ALL.increment();
+            } else {
+                subscriber.changed(changes);
+                CHANGES_DELIVERED.add(changes.size());
+            }
+            DELIVER.record(start);
+            return held;
+        }
+    }
+}
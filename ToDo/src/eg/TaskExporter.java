@@ -0,0 +1,423 @@
+package eg;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Writes tasks to a file by encoding them straight into a direct buffer,
+ * UTF-8 by hand and numbers digit by digit, and handing the buffer to a
+ * FileChannel each time it fills. No String or byte array is built per
+ * task, and each thread reuses one {@value #BUFFER_SIZE}-byte buffer
+ * across writes, so a million tasks cost a few dozen large writes.
+ *
+ * <p>{@link #export} writes a {@link TaskStore#snapshot()}, so the store is
+ * never locked and edits made while the file is written do not show up in
+ * it. The formats are those TaskImporter reads back (CSV with RFC 4180
+ * quoting, JSON lines) and the binary tasks.bin of BinaryTaskFormat.
+ * SnapshotFormat writes tasks.txt and tasks.bin through here as well.
+ */
+public final class TaskExporter {
+
+    /** File formats an export can write. */
+    public enum Format {
+        CSV,
+        JSON_LINES,
+        BINARY;
+
+        // From the file extension: .jsonl or .ndjson, .bin, else CSV
+        public static Format of(Path file) {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+                return JSON_LINES;
+            } else if (name.endsWith(".bin")) {
+                return BINARY;
+            }
+            return CSV;
+        }
+    }
+
+    static final int BUFFER_SIZE = 1 << 20;
+
+    private static final ThreadLocal<ByteBuffer> BUFFER = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_SIZE));
+    private static final TaskMetrics.Latency EXPORT = TaskMetrics.latency("export.run");
+    private static final TaskMetrics.Counter BYTES = TaskMetrics.counter("export.bytes");
+
+    private TaskExporter() {
+    }
+
+    /**
+     * Writes the store's tasks as they are at the start of the call. The
+     * file is written beside the target and moved over it once complete, so
+     * a failed export leaves any earlier file as it was. Returns the number
+     * of tasks written.
+     */
+    public static int export(TaskStore store, Path file, Format format) throws IOException {
+        long start = TaskMetrics.now();
+        List<ToDoListLogic.Task> tasks = store.snapshot();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            switch (format) {
+                case CSV:
+                    write(temp, tasks, TaskExporter::csv, "name,priority,status");
+                    break;
+                case JSON_LINES:
+                    write(temp, tasks, TaskExporter::jsonLine, null);
+                    break;
+                default:
+                    writeBinary(temp, tasks, 0);
+                    break;
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        EXPORT.record(start);
+        return tasks.size();
+    }
+
+    // tasks.txt: the header line, then "name,priority,status,id" per task, as TaskFileLoader reads it
+    static void writeTasksTxt(Path file, List<ToDoListLogic.Task> tasks, String header) throws IOException {
+        write(file, tasks, TaskExporter::tasksTxt, header);
+    }
+
+    private interface LineEncoder {
+        void encode(Out out, ToDoListLogic.Task task) throws IOException;
+    }
+
+    private static void write(Path file, List<ToDoListLogic.Task> tasks, LineEncoder encoder, String header) throws IOException {
+        try (Out out = new Out(file)) {
+            if (header != null) {
+                out.utf8(header);
+                out.put((byte) '\n');
+            }
+            for (ToDoListLogic.Task task : tasks) {
+                encoder.encode(out, task);
+            }
+        }
+    }
+
+    private static void tasksTxt(Out out, ToDoListLogic.Task task) throws IOException {
+        out.utf8(task.getName());
+        out.put((byte) ',');
+        out.utf8(task.getPriority());
+        out.put((byte) ',');
+        out.utf8(task.getStatus().getSymbol());
+        out.put((byte) ',');
+        out.decimal(task.getId());
+        out.put((byte) '\n');
+    }
+
+    private static void csv(Out out, ToDoListLogic.Task task) throws IOException {
+        csvField(out, task.getName());
+        out.put((byte) ',');
+        csvField(out, task.getPriority());
+        out.put((byte) ',');
+        out.utf8(task.getStatus().getSymbol());
+        out.put((byte) '\n');
+    }
+
+    // Quoted when TaskImporter would otherwise split or trim it
+    private static void csvField(Out out, String value) throws IOException {
+        boolean quote = !value.isEmpty() && (value.charAt(0) == ' ' || value.charAt(value.length() - 1) == ' ');
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.utf8(value);
+            return;
+        }
+        out.put((byte) '"');
+        int from = 0;
+        for (int q = value.indexOf('"'); q >= 0; q = value.indexOf('"', from)) {
+            out.utf8(value, from, q + 1);
+            out.put((byte) '"');
+            from = q + 1;
+        }
+        out.utf8(value, from, value.length());
+        out.put((byte) '"');
+    }
+
+    private static void jsonLine(Out out, ToDoListLogic.Task task) throws IOException {
+        out.ascii("{\"id\":");
+        out.decimal(task.getId());
+        out.ascii(",\"name\":");
+        jsonString(out, task.getName());
+        out.ascii(",\"priority\":");
+        jsonString(out, task.getPriority());
+        out.ascii(",\"status\":");
+        jsonString(out, task.getStatus().getSymbol());
+        out.ascii("}\n");
+    }
+
+    private static void jsonString(Out out, String value) throws IOException {
+        out.put((byte) '"');
+        int from = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            out.utf8(value, from, i);
+            from = i + 1;
+            switch (c) {
+                case '"':
+                    out.ascii("\\\"");
+                    break;
+                case '\\':
+                    out.ascii("\\\\");
+                    break;
+                case '\n':
+                    out.ascii("\\n");
+                    break;
+                case '\r':
+                    out.ascii("\\r");
+                    break;
+                case '\t':
+                    out.ascii("\\t");
+                    break;
+                default:
+                    out.ascii(String.format("\\u%04x", (int) c));
+                    break;
+            }
+        }
+        out.utf8(value, from, value.length());
+        out.put((byte) '"');
+    }
+
+    // tasks.bin, byte for byte as BinaryTaskFormat describes it. The header is written with zero counts and filled
+    // in at the end, once the body has been counted.
+    static void writeBinary(Path file, List<ToDoListLogic.Task> tasks, long journalSeq) throws IOException {
+        int taskCount = tasks.size();
+        // Unusual priorities are stored once each, after the names
+        Map<Priority, Integer> others = new HashMap<>();
+        int stringCount = taskCount;
+        for (ToDoListLogic.Task task : tasks) {
+            Priority priority = task.getPriorityValue();
+            if (BinaryTaskFormat.code(priority) == BinaryTaskFormat.OTHER && !others.containsKey(priority)) {
+                others.put(priority, stringCount++);
+            }
+        }
+        String[] otherNames = new String[stringCount - taskCount];
+        for (Map.Entry<Priority, Integer> other : others.entrySet()) {
+            otherNames[other.getValue() - taskCount] = other.getKey().getName();
+        }
+
+        try (Out out = new Out(file)) {
+            out.ensure(BinaryTaskFormat.HEADER_SIZE);
+            out.buffer.position(BinaryTaskFormat.HEADER_SIZE);
+            out.startCrc();
+            for (ToDoListLogic.Task task : tasks) {
+                out.varString(task.getName());
+            }
+            for (String name : otherNames) {
+                out.varString(name);
+            }
+            long previousId = 0;
+            for (ToDoListLogic.Task task : tasks) {
+                int priority = BinaryTaskFormat.code(task.getPriorityValue());
+                out.ensure(16);
+                out.buffer.put((byte) (priority | task.getStatus().ordinal() << 2));
+                if (priority == BinaryTaskFormat.OTHER) {
+                    BinaryTaskFormat.putVarint(out.buffer, others.get(task.getPriorityValue()));
+                }
+                BinaryTaskFormat.putVarlong(out.buffer, BinaryTaskFormat.zigZag(task.getId() - previousId));
+                previousId = task.getId();
+            }
+            int crc = out.stopCrc();
+            long bodyLength = out.written - BinaryTaskFormat.HEADER_SIZE;
+            if (bodyLength > Integer.MAX_VALUE) {
+                throw new IOException("Too many tasks for the binary format: " + bodyLength + " bytes");
+            }
+            out.buffer.putInt(crc);
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(BinaryTaskFormat.HEADER_SIZE);
+            header.putInt(BinaryTaskFormat.MAGIC).putShort(BinaryTaskFormat.VERSION).putShort((short) 0)
+                    .putLong(journalSeq).putInt(taskCount).putInt(stringCount).putInt((int) bodyLength);
+            header.flip();
+            long position = 0;
+            while (header.hasRemaining()) {
+                position += out.channel.write(header, position);
+            }
+        }
+    }
+
+    // A file being written through the calling thread's buffer
+    private static final class Out implements AutoCloseable {
+        private static final int SHORT_STRING = 127 / 3;
+
+        final FileChannel channel;
+        final ByteBuffer buffer;
+        long written;
+        // While set, bytes from crcFrom in the buffer go into it when flushed
+        private CRC32 crc;
+        private int crcFrom;
+
+        Out(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+            buffer = BUFFER.get();
+            buffer.clear();
+        }
+
+        void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            if (crc != null) {
+                ByteBuffer body = buffer.duplicate();
+                body.position(crcFrom);
+                crc.update(body);
+                crcFrom = 0;
+            }
+            while (buffer.hasRemaining()) {
+                written += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        void startCrc() {
+            crc = new CRC32();
+            crcFrom = buffer.position();
+        }
+
+        // Flushes, so written counts every byte the CRC covers
+        int stopCrc() throws IOException {
+            flush();
+            int value = (int) crc.getValue();
+            crc = null;
+            return value;
+        }
+
+        void put(byte b) throws IOException {
+            ensure(1);
+            buffer.put(b);
+        }
+
+        void ascii(String s) throws IOException {
+            ensure(s.length());
+            for (int i = 0; i < s.length(); i++) {
+                buffer.put((byte) s.charAt(i));
+            }
+        }
+
+        void decimal(long value) throws IOException {
+            ensure(20);
+            if (value < 0) {
+                buffer.put((byte) '-');
+                value = -value;
+            }
+            int start = buffer.position();
+            do {
+                buffer.put((byte) ('0' + value % 10));
+                value /= 10;
+            } while (value != 0);
+            // Digits went in lowest first
+            for (int i = start, j = buffer.position() - 1; i < j; i++, j--) {
+                byte b = buffer.get(i);
+                buffer.put(i, buffer.get(j));
+                buffer.put(j, b);
+            }
+        }
+
+        void utf8(String s) throws IOException {
+            utf8(s, 0, s.length());
+        }
+
+        // Encodes like String.getBytes(UTF_8), including '?' for a lone surrogate
+        void utf8(String s, int from, int to) throws IOException {
+            int i = from;
+            while (i < to) {
+                // Up to 3 bytes a char, one more if a surrogate pair straddles end
+                if (buffer.remaining() < Math.min(to - i, 1024) * 3 + 1) {
+                    flush();
+                }
+                int end = Math.min(to, i + (buffer.remaining() - 1) / 3);
+                while (i < end) {
+                    char c = s.charAt(i++);
+                    if (c < 0x80) {
+                        buffer.put((byte) c);
+                    } else if (c < 0x800) {
+                        buffer.put((byte) (0xc0 | c >> 6));
+                        buffer.put((byte) (0x80 | c & 0x3f));
+                    } else if (Character.isHighSurrogate(c) && i < to && Character.isLowSurrogate(s.charAt(i))) {
+                        int cp = Character.toCodePoint(c, s.charAt(i++));
+                        buffer.put((byte) (0xf0 | cp >> 18));
+                        buffer.put((byte) (0x80 | cp >> 12 & 0x3f));
+                        buffer.put((byte) (0x80 | cp >> 6 & 0x3f));
+                        buffer.put((byte) (0x80 | cp & 0x3f));
+                    } else if (Character.isSurrogate(c)) {
+                        buffer.put((byte) '?');
+                    } else {
+                        buffer.put((byte) (0xe0 | c >> 12));
+                        buffer.put((byte) (0x80 | c >> 6 & 0x3f));
+                        buffer.put((byte) (0x80 | c & 0x3f));
+                    }
+                }
+            }
+        }
+
+        // Varint byte length, then the UTF-8 bytes
+        void varString(String s) throws IOException {
+            if (s.length() <= SHORT_STRING) {
+                // Under 128 bytes however it encodes, so the length is one byte, filled in afterwards
+                ensure(1 + s.length() * 3 + 1);
+                int at = buffer.position();
+                buffer.put((byte) 0);
+                utf8(s);
+                buffer.put(at, (byte) (buffer.position() - at - 1));
+                return;
+            }
+            ensure(5);
+            BinaryTaskFormat.putVarint(buffer, utf8Length(s));
+            utf8(s);
+        }
+
+        private static int utf8Length(String s) {
+            int length = 0;
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c < 0x80) {
+                    length++;
+                } else if (c < 0x800) {
+                    length += 2;
+                } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    length += 4;
+                    i++;
+                } else if (Character.isSurrogate(c)) {
+                    length++;
+                } else {
+                    length += 3;
+                }
+            }
+            return length;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (crc == null) {
+                    flush();
+                }
+            } finally {
+                buffer.clear();
+                channel.close();
+            }
+        }
+    }
+}
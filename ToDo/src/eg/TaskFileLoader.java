@@ -0,0 +1,243 @@
+package eg;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Reads tasks.txt ("name,priority,status[,id]" per line) by memory-mapping it in
+ * line-aligned chunks and parsing the chunks in parallel. The returned list
+ * keeps the file order so it can go to ToDoListLogic.addTasks in one call.
+ */
+public final class TaskFileLoader {
+
+    private static final int CHUNK_SIZE = 4 * 1024 * 1024;
+
+    private static final byte[] HIGH = "High".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] MEDIUM = "Medium".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] LOW = "Low".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] DONE = TaskStatus.DONE.getSymbol().getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NOT_DONE = TaskStatus.NOT_DONE.getSymbol().getBytes(StandardCharsets.UTF_8);
+
+    private TaskFileLoader() {
+    }
+
+    /**
+     * Parses the whole file. {@code progress} receives the percentage of
+     * chunks parsed so far and may be called from worker threads.
+     */
+    public static List<ToDoListLogic.Task> load(Path file, IntConsumer progress) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(channel);
+            int chunks = bounds.length - 1;
+            AtomicInteger parsed = new AtomicInteger();
+
+            List<List<ToDoListLogic.Task>> batches;
+            try {
+                batches = IntStream.range(0, chunks).parallel()
+                        .mapToObj(i -> {
+                            List<ToDoListLogic.Task> batch = parseChunk(channel, bounds[i], bounds[i + 1]);
+                            progress.accept(parsed.incrementAndGet() * 100 / chunks);
+                            return batch;
+                        })
+                        .collect(Collectors.toList());
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            int total = 0;
+            for (List<ToDoListLogic.Task> batch : batches) {
+                total += batch.size();
+            }
+            List<ToDoListLogic.Task> tasks = new ArrayList<>(total);
+            for (List<ToDoListLogic.Task> batch : batches) {
+                tasks.addAll(batch);
+            }
+            return tasks;
+        }
+    }
+
+    // Chunk start offsets, each moved forward to just past the next newline, plus the file size at the end
+    private static long[] chunkBounds(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long pos = CHUNK_SIZE;
+        while (pos < size) {
+            long lineEnd = -1;
+            while (lineEnd < 0 && pos < size) {
+                probe.clear();
+                int read = channel.read(probe, pos);
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        lineEnd = pos + i + 1;
+                        break;
+                    }
+                }
+                if (lineEnd < 0) {
+                    pos += Math.max(read, 1);
+                }
+            }
+            if (lineEnd < 0 || lineEnd >= size) {
+                break;
+            }
+            bounds.add(lineEnd);
+            pos = lineEnd + CHUNK_SIZE;
+        }
+        bounds.add(size);
+
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    private static List<ToDoListLogic.Task> parseChunk(FileChannel channel, long start, long end) {
+        MappedByteBuffer buffer;
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        List<ToDoListLogic.Task> tasks = new ArrayList<>();
+        byte[] line = new byte[256];
+        int limit = buffer.limit();
+        int lineStart = 0;
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int length = lineEnd - lineStart;
+            if (length > line.length) {
+                line = new byte[Math.max(length, line.length * 2)];
+            }
+            for (int i = 0; i < length; i++) {
+                line[i] = buffer.get(lineStart + i);
+            }
+            ToDoListLogic.Task task = parseLine(line, length);
+            if (task != null) {
+                tasks.add(task);
+            }
+            lineStart = lineEnd + 1;
+        }
+        return tasks;
+    }
+
+    // Splits on the last two commas, so task names may themselves contain commas. Snapshots written since
+    // tasks have ids end in a fourth, numeric field; it is only taken as the id if two commas remain before it.
+    static ToDoListLogic.Task parseLine(byte[] line, int length) {
+        int idComma = lastIndexOf(line, (byte) ',', length - 1);
+        long id = idComma > 0 ? parseId(line, idComma + 1, length) : -1;
+        // An id of 0 is a task that was never stored (written by SnapshotFormat outside a store); it gets a new one
+        if (id >= 0) {
+            ToDoListLogic.Task task = parseFields(line, idComma, id);
+            if (task != null) {
+                return task;
+            }
+        }
+        return parseFields(line, length, 0);
+    }
+
+    private static ToDoListLogic.Task parseFields(byte[] line, int length, long id) {
+        int statusComma = lastIndexOf(line, (byte) ',', length - 1);
+        if (statusComma <= 0) {
+            return null;
+        }
+        int priorityComma = lastIndexOf(line, (byte) ',', statusComma - 1);
+        if (priorityComma < 0) {
+            return null;
+        }
+
+        String name = new String(line, 0, priorityComma, StandardCharsets.UTF_8);
+        Priority priority = priority(line, priorityComma + 1, statusComma);
+
+        // Trim to remove any extra spaces (and the \r of Windows line endings)
+        int statusStart = statusComma + 1;
+        int statusEnd = length;
+        while (statusStart < statusEnd && (line[statusStart] & 0xff) <= ' ') {
+            statusStart++;
+        }
+        while (statusEnd > statusStart && (line[statusEnd - 1] & 0xff) <= ' ') {
+            statusEnd--;
+        }
+
+        TaskStatus status;
+        if (matches(line, statusStart, statusEnd, DONE)) {
+            status = TaskStatus.DONE;
+        } else if (matches(line, statusStart, statusEnd, NOT_DONE)) {
+            status = TaskStatus.NOT_DONE;
+        } else {
+            status = TaskStatus.UNKNOWN;
+        }
+        return new ToDoListLogic.Task(id, name, priority, status);
+    }
+
+    // Digits, ignoring surrounding whitespace and \r; -1 if the field is anything else
+    private static long parseId(byte[] line, int from, int to) {
+        while (from < to && (line[from] & 0xff) <= ' ') {
+            from++;
+        }
+        while (to > from && (line[to - 1] & 0xff) <= ' ') {
+            to--;
+        }
+        if (from == to || to - from > 18) {
+            return -1;
+        }
+        long id = 0;
+        for (int i = from; i < to; i++) {
+            if (line[i] < '0' || line[i] > '9') {
+                return -1;
+            }
+            id = id * 10 + (line[i] - '0');
+        }
+        return id;
+    }
+
+    // Known priorities are matched on the bytes, so only other names cost a String per line
+    private static Priority priority(byte[] line, int from, int to) {
+        if (matches(line, from, to, HIGH)) {
+            return Priority.HIGH;
+        } else if (matches(line, from, to, MEDIUM)) {
+            return Priority.MEDIUM;
+        } else if (matches(line, from, to, LOW)) {
+            return Priority.LOW;
+        }
+        return Priority.of(new String(line, from, to - from, StandardCharsets.UTF_8));
+    }
+
+    private static boolean matches(byte[] line, int from, int to, byte[] expected) {
+        if (to - from != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (line[from + i] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int lastIndexOf(byte[] line, byte b, int from) {
+        for (int i = from; i >= 0; i--) {
+            if (line[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,122 @@
+package eg;
+
+/**
+ * Open-addressing hash map from task id to task, with primitive long keys
+ * so lookups neither box nor allocate. Linear probing; removal shifts the
+ * following entries back instead of leaving tombstones, so lookups stay
+ * short however many tasks come and go. Id 0 marks an empty slot.
+ */
+final class TaskIdMap {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private ToDoListLogic.Task[] values;
+    private int size;
+    private int mask;
+
+    TaskIdMap() {
+        allocate(MIN_CAPACITY);
+    }
+
+    ToDoListLogic.Task get(long id) {
+        for (int slot = slot(id); ; slot = slot + 1 & mask) {
+            long key = keys[slot];
+            if (key == id) {
+                return values[slot];
+            }
+            if (key == 0) {
+                return null;
+            }
+        }
+    }
+
+    boolean containsKey(long id) {
+        return id != 0 && get(id) != null;
+    }
+
+    void put(ToDoListLogic.Task task) {
+        if (size + 1 > keys.length * 3 / 4) {
+            resize(keys.length * 2);
+        }
+        if (insert(task)) {
+            size++;
+        }
+    }
+
+    // Sizes the table once for a bulk insert instead of doubling repeatedly
+    void ensureCapacity(int count) {
+        int needed = (int) Math.min(1L << 30, (size + (long) count) * 4 / 3 + 1);
+        if (needed > keys.length) {
+            resize(Integer.highestOneBit(needed - 1) << 1);
+        }
+    }
+
+    ToDoListLogic.Task remove(long id) {
+        int slot = slot(id);
+        while (keys[slot] != id) {
+            if (keys[slot] == 0) {
+                return null;
+            }
+            slot = slot + 1 & mask;
+        }
+        ToDoListLogic.Task removed = values[slot];
+        // Backward-shift deletion: pull later entries of the probe run into the hole
+        int hole = slot;
+        for (int next = hole + 1 & mask; keys[next] != 0; next = next + 1 & mask) {
+            int home = slot(keys[next]);
+            // Move the entry if its home slot is not cyclically within (hole, next]
+            if ((next - home & mask) >= (next - hole & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+        }
+        keys[hole] = 0;
+        values[hole] = null;
+        size--;
+        return removed;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Returns true if the id was new
+    private boolean insert(ToDoListLogic.Task task) {
+        for (int slot = slot(task.id); ; slot = slot + 1 & mask) {
+            if (keys[slot] == 0) {
+                keys[slot] = task.id;
+                values[slot] = task;
+                return true;
+            }
+            if (keys[slot] == task.id) {
+                values[slot] = task;
+                return false;
+            }
+        }
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        ToDoListLogic.Task[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                insert(oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new ToDoListLogic.Task[capacity];
+        mask = capacity - 1;
+    }
+
+    // Ids are sequential, so mix the bits before masking to spread neighbours apart
+    private int slot(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ h >>> 32) & mask;
+    }
+}
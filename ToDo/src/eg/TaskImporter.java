@@ -0,0 +1,680 @@
+package eg;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+
+/**
+ * Imports tasks from another source into the logic in bulk. Each record is
+ * a name, a priority and an optional status, as CSV (RFC 4180 quoting, so
+ * names may hold commas, quotes and line breaks), TSV (backslash escapes)
+ * or JSON lines ({@code {"name":..., "priority":..., "status":...}}). A
+ * header row naming the columns is skipped; blank lines are ignored.
+ *
+ * <p>The import is a pipeline of three stages joined by bounded queues: a
+ * reader thread cuts the input into chunks of records, a few parser
+ * threads turn chunks into tasks and rejects, and the calling thread puts
+ * the chunks back in file order and hands the tasks to
+ * {@link ToDoListLogic#addTasks} in large batches. Each batch is one
+ * write-locked merge into the priority buckets and one table refresh,
+ * instead of one per row. A slow stage holds the others back rather than
+ * letting chunks pile up in memory.
+ *
+ * <p>A line break inside a name becomes a space: tasks.txt keeps one task
+ * per line and has no escape for one.
+ *
+ * <p>Imported tasks always get new ids. A record that cannot be read, lacks
+ * a name, or has a priority other than High, Medium or Low is rejected and
+ * the import goes on; the {@link Result} says how many there were and why.
+ * Priority names are interned for good (see Priority), so an import does
+ * not get to add new ones.
+ */
+public final class TaskImporter {
+
+    /** Record syntaxes an import can read. */
+    public enum Format {
+        CSV,
+        TSV,
+        JSON_LINES;
+
+        // From the file extension: .tsv, .jsonl or .ndjson, else CSV
+        public static Format of(Path file) {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            if (name.endsWith(".tsv")) {
+                return TSV;
+            } else if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+                return JSON_LINES;
+            }
+            return CSV;
+        }
+    }
+
+    /** A record that was not imported. */
+    public static final class Reject {
+        private final long line;
+        private final String reason;
+        private final String record;
+
+        Reject(long line, String reason, String record) {
+            this.line = line;
+            this.reason = reason;
+            this.record = record;
+        }
+
+        // Line the record starts on, from 1
+        public long getLine() {
+            return line;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        public String getRecord() {
+            return record;
+        }
+
+        @Override
+        public String toString() {
+            return "line " + line + ": " + reason;
+        }
+    }
+
+    /** What an import did. */
+    public static final class Result {
+        private final long imported;
+        private final long rejected;
+        private final List<Reject> rejects;
+        private final long nanos;
+
+        Result(long imported, long rejected, List<Reject> rejects, long nanos) {
+            this.imported = imported;
+            this.rejected = rejected;
+            this.rejects = rejects;
+            this.nanos = nanos;
+        }
+
+        public long getImported() {
+            return imported;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        // The first MAX_REJECTS_KEPT rejects, in file order
+        public List<Reject> getRejects() {
+            return rejects;
+        }
+
+        public long getMillis() {
+            return nanos / 1_000_000;
+        }
+
+        // Records read, imported or not, per second of the whole import
+        public double getRowsPerSecond() {
+            return nanos == 0 ? 0 : (imported + rejected) * 1e9 / nanos;
+        }
+    }
+
+    // Records per chunk handed from the reader to a parser
+    static final int CHUNK = 4096;
+    // Tasks per addTasks call; each is one store write and one table refresh
+    static final int BATCH = 50_000;
+    static final int MAX_REJECTS_KEPT = 1000;
+    private static final int PARSERS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
+    private static final TaskMetrics.Latency IMPORT = TaskMetrics.latency("import.run");
+    private static final TaskMetrics.Counter ROWS = TaskMetrics.counter("import.rows");
+    private static final TaskMetrics.Counter REJECTS = TaskMetrics.counter("import.rejects");
+
+    private TaskImporter() {
+    }
+
+    /**
+     * Imports a UTF-8 file. {@code progress} receives the percentage of the
+     * file read so far, on the calling thread; an exception it throws, such
+     * as the CancellationException of a cancelled TaskIoExecutor job, stops
+     * the import. Batches already added stay in the logic.
+     */
+    public static Result importFile(ToDoListLogic logic, Path file, Format format, IntConsumer progress) throws IOException {
+        long size = Files.size(file);
+        AtomicLong read = new AtomicLong();
+        InputStream in = new FilterInputStream(Files.newInputStream(file)) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int n = super.read(b, off, len);
+                if (n > 0) {
+                    read.addAndGet(n);
+                }
+                return n;
+            }
+        };
+        IntConsumer chunkDone = size == 0 ? chunk -> { } : chunk -> progress.accept((int) (read.get() * 100 / size));
+        return run(logic, new InputStreamReader(in, StandardCharsets.UTF_8), format, chunkDone);
+    }
+
+    // Imports from any reader, which this closes
+    public static Result importFrom(ToDoListLogic logic, Reader in, Format format) throws IOException {
+        return run(logic, in, format, chunk -> { });
+    }
+
+    // One chunk of raw records, or with records null the end of the input
+    private static final class Chunk {
+        final int seq;
+        final String[] records;
+        final long[] lines;
+        final int count;
+        final IOException failure;
+
+        Chunk(int seq, String[] records, long[] lines, int count, IOException failure) {
+            this.seq = seq;
+            this.records = records;
+            this.lines = lines;
+            this.count = count;
+            this.failure = failure;
+        }
+    }
+
+    private static final class Parsed {
+        final int seq;
+        final boolean end;
+        final IOException failure;
+        final List<ToDoListLogic.Task> tasks = new ArrayList<>();
+        final List<Reject> rejects = new ArrayList<>();
+        RuntimeException error;
+
+        Parsed(int seq, boolean end, IOException failure) {
+            this.seq = seq;
+            this.end = end;
+            this.failure = failure;
+        }
+    }
+
+    private static Result run(ToDoListLogic logic, Reader reader, Format format, IntConsumer chunkDone) throws IOException {
+        long start = System.nanoTime();
+        BlockingQueue<Chunk> raw = new ArrayBlockingQueue<>(PARSERS * 2);
+        BlockingQueue<Parsed> parsed = new ArrayBlockingQueue<>(PARSERS * 2);
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService stages = Executors.newFixedThreadPool(PARSERS + 1, r -> {
+            Thread thread = new Thread(r, "todo-import-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            stages.execute(() -> read(reader, format, raw));
+            for (int p = 0; p < PARSERS; p++) {
+                stages.execute(() -> parse(format, raw, parsed));
+            }
+
+            // Chunks come back in any order; this puts them back in file order before they reach the store
+            Map<Integer, Parsed> waiting = new HashMap<>();
+            List<ToDoListLogic.Task> batch = new ArrayList<>(BATCH);
+            List<Reject> rejects = new ArrayList<>();
+            long imported = 0;
+            long rejected = 0;
+            int next = 0;
+            while (true) {
+                Parsed chunk = waiting.remove(next);
+                if (chunk == null) {
+                    Parsed arrived = take(parsed);
+                    waiting.put(arrived.seq, arrived);
+                    continue;
+                }
+                if (chunk.error != null) {
+                    throw chunk.error;
+                }
+                if (chunk.end) {
+                    if (chunk.failure != null) {
+                        throw chunk.failure;
+                    }
+                    break;
+                }
+                for (ToDoListLogic.Task task : chunk.tasks) {
+                    batch.add(task);
+                    if (batch.size() == BATCH) {
+                        logic.addTasks(batch);
+                        imported += batch.size();
+                        // The store's change events keep the list, so every batch needs a new one
+                        batch = new ArrayList<>(BATCH);
+                    }
+                }
+                rejected += chunk.rejects.size();
+                for (Reject reject : chunk.rejects) {
+                    if (rejects.size() < MAX_REJECTS_KEPT) {
+                        rejects.add(reject);
+                    }
+                }
+                next++;
+                chunkDone.accept(next);
+            }
+            if (!batch.isEmpty()) {
+                logic.addTasks(batch);
+                imported += batch.size();
+            }
+            ROWS.add(imported);
+            REJECTS.add(rejected);
+            IMPORT.record(start);
+            return new Result(imported, rejected, rejects, System.nanoTime() - start);
+        } finally {
+            // Wakes any stage still blocked on a queue, as after a failure or cancellation
+            stages.shutdownNow();
+            reader.close();
+        }
+    }
+
+    private static Parsed take(BlockingQueue<Parsed> parsed) throws IOException {
+        try {
+            return parsed.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while importing", e);
+        }
+    }
+
+    // Reader stage: cuts the input into chunks of records, a CSV record running on while a quote is open
+    private static void read(Reader reader, Format format, BlockingQueue<Chunk> raw) {
+        int seq = 0;
+        IOException failure = null;
+        try (BufferedReader in = new BufferedReader(reader, 1 << 16)) {
+            String[] records = new String[CHUNK];
+            long[] lines = new long[CHUNK];
+            int count = 0;
+            long lineNumber = 0;
+            String line;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                long first = lineNumber;
+                if (format == Format.CSV && hasOpenQuote(line)) {
+                    StringBuilder record = new StringBuilder(line);
+                    boolean open = true;
+                    while (open && (line = in.readLine()) != null) {
+                        lineNumber++;
+                        record.append('\n').append(line);
+                        open ^= hasOpenQuote(line);
+                    }
+                    line = record.toString();
+                }
+                records[count] = line;
+                lines[count] = first;
+                if (++count == CHUNK) {
+                    raw.put(new Chunk(seq++, records, lines, count, null));
+                    records = new String[CHUNK];
+                    lines = new long[CHUNK];
+                    count = 0;
+                }
+            }
+            if (count > 0) {
+                raw.put(new Chunk(seq++, records, lines, count, null));
+            }
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            return; // The import was stopped
+        }
+        try {
+            raw.put(new Chunk(seq, null, null, 0, failure));
+        } catch (InterruptedException e) {
+            // The import was stopped
+        }
+    }
+
+    // True if the line has an odd number of quotes, so a quoted field continues on the next line
+    private static boolean hasOpenQuote(String line) {
+        boolean open = false;
+        for (int i = line.indexOf('"'); i >= 0; i = line.indexOf('"', i + 1)) {
+            open = !open;
+        }
+        return open;
+    }
+
+    // Parser stage
+    private static void parse(Format format, BlockingQueue<Chunk> raw, BlockingQueue<Parsed> parsed) {
+        try {
+            while (true) {
+                Chunk chunk = raw.take();
+                if (chunk.records == null) {
+                    raw.put(chunk); // Leave the end for the other parsers
+                    parsed.put(new Parsed(chunk.seq, true, chunk.failure));
+                    return;
+                }
+                Parsed result = new Parsed(chunk.seq, false, null);
+                try {
+                    for (int i = 0; i < chunk.count; i++) {
+                        parseRecord(format, chunk.records[i], chunk.lines[i], result);
+                    }
+                } catch (RuntimeException e) {
+                    result.error = e;
+                }
+                parsed.put(result);
+            }
+        } catch (InterruptedException e) {
+            // The import was stopped
+        }
+    }
+
+    private static void parseRecord(Format format, String record, long line, Parsed result) {
+        if (record.trim().isEmpty()) {
+            return;
+        }
+        String name;
+        String priority;
+        String status;
+        try {
+            if (format == Format.JSON_LINES) {
+                Map<String, String> fields = JsonLine.parse(record);
+                name = fields.get("name");
+                priority = fields.get("priority");
+                status = fields.get("status");
+            } else {
+                List<String> fields = format == Format.CSV ? splitCsv(record) : splitTsv(record);
+                if (fields.size() < 2 || fields.size() > 3) {
+                    throw new IllegalArgumentException("expected name, priority and an optional status, found "
+                            + fields.size() + " fields");
+                }
+                name = fields.get(0);
+                priority = fields.get(1);
+                status = fields.size() == 3 ? fields.get(2) : null;
+                if (line == 1 && name.equalsIgnoreCase("name") && priority.equalsIgnoreCase("priority")) {
+                    return; // Header row
+                }
+            }
+            if (name == null || name.trim().isEmpty()) {
+                throw new IllegalArgumentException("missing name");
+            }
+            if (priority == null || priority.trim().isEmpty()) {
+                throw new IllegalArgumentException("missing priority");
+            }
+            result.tasks.add(new ToDoListLogic.Task(0, oneLine(name), priority(priority.trim()), status(status)));
+        } catch (IllegalArgumentException e) {
+            result.rejects.add(new Reject(line, e.getMessage(), record));
+        }
+    }
+
+    // Each CR, LF or CRLF as one space, so the name saves as one line of tasks.txt
+    private static String oneLine(String name) {
+        if (name.indexOf('\n') < 0 && name.indexOf('\r') < 0) {
+            return name;
+        }
+        return name.replace("\r\n", " ").replace('\r', ' ').replace('\n', ' ');
+    }
+
+    // High, Medium and Low in any case
+    private static Priority priority(String name) {
+        for (Priority known : new Priority[]{Priority.HIGH, Priority.MEDIUM, Priority.LOW}) {
+            if (known.getName().equalsIgnoreCase(name)) {
+                return known;
+            }
+        }
+        throw new IllegalArgumentException("unknown priority '" + name + "'");
+    }
+
+    // The symbol the tables show, or the status name in any case; none is Unknown, as for a task added by hand
+    private static TaskStatus status(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return TaskStatus.UNKNOWN;
+        }
+        String trimmed = value.trim();
+        for (TaskStatus status : TaskStatus.values()) {
+            if (status.getSymbol().equals(trimmed) || status.name().equalsIgnoreCase(trimmed.replace(' ', '_'))) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("unknown status '" + trimmed + "'");
+    }
+
+    // RFC 4180: a quoted field may hold commas, line breaks and doubled quotes. Unquoted fields are trimmed.
+    static List<String> splitCsv(String record) {
+        List<String> fields = new ArrayList<>(3);
+        int i = 0;
+        int length = record.length();
+        while (true) {
+            while (i < length && record.charAt(i) == ' ') {
+                i++;
+            }
+            if (i < length && record.charAt(i) == '"') {
+                StringBuilder field = new StringBuilder();
+                i++;
+                while (true) {
+                    if (i >= length) {
+                        throw new IllegalArgumentException("unterminated quoted field");
+                    }
+                    char c = record.charAt(i++);
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i < length && record.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                while (i < length && (record.charAt(i) == ' ' || record.charAt(i) == '\r')) {
+                    i++;
+                }
+                if (i < length && record.charAt(i) != ',') {
+                    throw new IllegalArgumentException("text after a closing quote");
+                }
+                fields.add(field.toString());
+            } else {
+                int comma = record.indexOf(',', i);
+                int end = comma < 0 ? length : comma;
+                fields.add(record.substring(i, end).trim());
+                i = end;
+            }
+            if (i >= length) {
+                return fields;
+            }
+            i++; // The comma
+        }
+    }
+
+    // Tab-separated; a field may hold \t, \n, \r and \\ escapes
+    static List<String> splitTsv(String record) {
+        List<String> fields = new ArrayList<>(3);
+        int from = 0;
+        while (true) {
+            int tab = record.indexOf('\t', from);
+            String field = record.substring(from, tab < 0 ? record.length() : tab);
+            fields.add(field.indexOf('\\') < 0 ? field.trim() : unescape(field.trim()));
+            if (tab < 0) {
+                return fields;
+            }
+            from = tab + 1;
+        }
+    }
+
+    private static String unescape(String field) {
+        StringBuilder out = new StringBuilder(field.length());
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c != '\\' || i + 1 == field.length()) {
+                out.append(c);
+                continue;
+            }
+            char escaped = field.charAt(++i);
+            switch (escaped) {
+                case 't':
+                    out.append('\t');
+                    break;
+                case 'n':
+                    out.append('\n');
+                    break;
+                case 'r':
+                    out.append('\r');
+                    break;
+                default:
+                    out.append(escaped);
+                    break;
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Just enough JSON for one flat object per line: string members are
+     * returned, members of any other type are checked and skipped.
+     */
+    static final class JsonLine {
+        private final String text;
+        private int pos;
+
+        private JsonLine(String text) {
+            this.text = text;
+        }
+
+        static Map<String, String> parse(String line) {
+            JsonLine json = new JsonLine(line);
+            Map<String, String> members = new HashMap<>();
+            json.expect('{');
+            if (!json.consume('}')) {
+                do {
+                    String key = json.string();
+                    json.expect(':');
+                    json.space();
+                    if (json.peek() == '"') {
+                        members.put(key, json.string());
+                    } else {
+                        json.skipValue();
+                    }
+                } while (json.consume(','));
+                json.expect('}');
+            }
+            json.space();
+            if (json.pos != json.text.length()) {
+                throw new IllegalArgumentException("text after the JSON object");
+            }
+            return members;
+        }
+
+        private void space() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private char peek() {
+            if (pos >= text.length()) {
+                throw new IllegalArgumentException("JSON ends early");
+            }
+            return text.charAt(pos);
+        }
+
+        private boolean consume(char c) {
+            space();
+            if (pos < text.length() && text.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) {
+            if (!consume(c)) {
+                throw new IllegalArgumentException("expected '" + c + "' at column " + (pos + 1));
+            }
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder out = new StringBuilder();
+            while (true) {
+                char c = peek();
+                pos++;
+                if (c == '"') {
+                    return out.toString();
+                }
+                if (c != '\\') {
+                    out.append(c);
+                    continue;
+                }
+                char escaped = peek();
+                pos++;
+                switch (escaped) {
+                    case 'b':
+                        out.append('\b');
+                        break;
+                    case 'f':
+                        out.append('\f');
+                        break;
+                    case 'n':
+                        out.append('\n');
+                        break;
+                    case 'r':
+                        out.append('\r');
+                        break;
+                    case 't':
+                        out.append('\t');
+                        break;
+                    case 'u':
+                        if (pos + 4 > text.length()) {
+                            throw new IllegalArgumentException("bad \\u escape");
+                        }
+                        try {
+                            out.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw new IllegalArgumentException("bad \\u escape");
+                        }
+                        pos += 4;
+                        break;
+                    case '"':
+                    case '\\':
+                    case '/':
+                        out.append(escaped);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("bad escape \\" + escaped);
+                }
+            }
+        }
+
+        // A number, literal, array or object; nested strings are read so brackets inside them do not count
+        private void skipValue() {
+            char c = peek();
+            if (c == '{' || c == '[') {
+                int depth = 0;
+                do {
+                    c = peek();
+                    if (c == '"') {
+                        string();
+                        continue;
+                    }
+                    if (c == '{' || c == '[') {
+                        depth++;
+                    } else if (c == '}' || c == ']') {
+                        depth--;
+                    }
+                    pos++;
+                } while (depth > 0);
+                return;
+            }
+            int start = pos;
+            while (pos < text.length() && ",}] \t".indexOf(text.charAt(pos)) < 0) {
+                pos++;
+            }
+            String literal = text.substring(start, pos);
+            if (!literal.equals("true") && !literal.equals("false") && !literal.equals("null")
+                    && !literal.matches("-?\\d+(\\.\\d+)?([eE][+-]?\\d+)?")) {
+                throw new IllegalArgumentException("bad JSON value '" + literal + "'");
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package eg;
+
+import javax.swing.SwingUtilities;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+
+/**
+ * Runs disk work (loading, saving, closing the journal) on one background
+ * thread so the EDT never waits for I/O. Jobs run one at a time in
+ * submission order, so a save queued behind a load sees the loaded tasks.
+ *
+ * <p>Progress and the final result are delivered on the EDT. Progress is
+ * coalesced: however often a job reports, at most one update is queued on
+ * the EDT at a time and it shows the latest value. Cancellation is
+ * cooperative; a job polls {@link Job#checkCancelled()} between steps.
+ */
+public final class TaskIoExecutor {
+
+    /** Work to run off the EDT. */
+    public interface IoTask<T> {
+        T run(Job job) throws Exception;
+    }
+
+    /** Receives the outcome of a job on the EDT. */
+    public interface Callback<T> {
+        void done(T result);
+
+        void failed(Exception e);
+
+        void cancelled();
+    }
+
+    /** Handle for a submitted job, also passed to the job itself. */
+    public static final class Job {
+        private final IntConsumer progressListener;
+        private final AtomicBoolean progressQueued = new AtomicBoolean();
+        private volatile boolean cancelled;
+        private volatile int progress;
+
+        Job(IntConsumer progressListener) {
+            this.progressListener = progressListener;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        // Throws CancellationException once cancel() has been called
+        public void checkCancelled() {
+            if (cancelled) {
+                throw new CancellationException();
+            }
+        }
+
+        // Percentage 0-100; safe to call from any thread, including parallel workers
+        public void setProgress(int percent) {
+            progress = percent;
+            if (progressQueued.compareAndSet(false, true)) {
+                SwingUtilities.invokeLater(() -> {
+                    progressQueued.set(false);
+                    progressListener.accept(progress);
+                });
+            }
+        }
+    }
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "todo-io");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public <T> Job submit(IoTask<T> task, IntConsumer onProgress, Callback<T> callback) {
+        Job job = new Job(onProgress);
+        executor.execute(() -> {
+            try {
+                job.checkCancelled();
+                T result = task.run(job);
+                // A job that finished despite a late cancel still reports its result, which may need closing
+                SwingUtilities.invokeLater(() -> callback.done(result));
+            } catch (CancellationException e) {
+                SwingUtilities.invokeLater(callback::cancelled);
+            } catch (Exception e) {
+                SwingUtilities.invokeLater(() -> callback.failed(e));
+            }
+        });
+        return job;
+    }
+
+    // Queued jobs still run; nothing new is accepted
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,487 @@
+package eg;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only change journal kept next to the task snapshot.
+ *
+ * <p>Every add, remove and status change made to the {@link TaskStore}
+ * becomes one framed record. Records are queued by the caller and written by
+ * a single writer thread, which fsyncs once per batch, so a burst of edits
+ * costs one fsync. Once the journal grows past {@link #COMPACT_THRESHOLD}
+ * bytes the current list is written to a fresh snapshot in the background,
+ * which replaces the old one by atomic rename, and the records it covers are
+ * dropped from the journal.
+ *
+ * <p>Record frame: {@code int length, long seq, byte op, payload, int crc32}.
+ * The snapshot records the seq N of the last record it contains (see
+ * {@link SnapshotFormat}); on startup only records after N are replayed, and
+ * a torn record at the tail is cut off. Records name tasks by their stable
+ * id; the positional records of older journals are still replayed.
+ *
+ * <p>A failed write stops the journal: later changes are no longer
+ * recorded, and the {@link FailureListener} is told at once rather than at
+ * {@link #close()}.
+ */
+public final class TaskJournal implements TaskStore.ChangeListener {
+
+    static final long COMPACT_THRESHOLD = 4 * 1024 * 1024;
+
+    /** Told once, on the writer thread, when the journal stops recording after a failed write. */
+    public interface FailureListener {
+        void journalFailed(IOException e);
+    }
+
+    // Positional records written before tasks had ids; only replayed
+    private static final byte OP_ADD = 1;
+    private static final byte OP_REMOVE = 2;
+    private static final byte OP_STATUS = 3;
+
+    private static final byte OP_ADD_ID = 4;
+    private static final byte OP_REMOVE_ID = 5;
+    private static final byte OP_STATUS_ID = 6;
+
+    // A write covers one batch of records and its fsync
+    private static final TaskMetrics.Latency WRITE = TaskMetrics.latency("journal.write");
+    private static final TaskMetrics.Latency COMPACT = TaskMetrics.latency("journal.compact");
+    private static final TaskMetrics.Counter RECORDS = TaskMetrics.counter("journal.records");
+
+    private final Path snapshotFile;
+    private final SnapshotFormat snapshotFormat;
+    private final Path journalFile;
+    private final Thread writer;
+    private final ExecutorService compactor;
+
+    // Owned by the writer thread once it has started
+    private FileChannel channel;
+
+    // Guarded by this
+    private List<byte[]> pending = new ArrayList<>();
+    private long appendedSeq;
+    private long durableSeq;
+    private long truncateUpTo = -1;
+    private long journalBytes;
+    private boolean compacting;
+    private boolean closed;
+    private IOException failure;
+    private FailureListener failureListener;
+
+    private ToDoListLogic logic;
+
+    private TaskJournal(Path snapshotFile, SnapshotFormat snapshotFormat, Path journalFile,
+            long lastSeq, long journalBytes) throws IOException {
+        this.snapshotFile = snapshotFile;
+        this.snapshotFormat = snapshotFormat;
+        this.journalFile = journalFile;
+        this.channel = FileChannel.open(journalFile, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.channel.truncate(journalBytes);
+        this.channel.position(journalBytes);
+        this.appendedSeq = lastSeq;
+        this.durableSeq = lastSeq;
+        this.journalBytes = journalBytes;
+
+        writer = new Thread(this::writeLoop, "todo-journal-writer");
+        writer.setDaemon(true);
+        compactor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "todo-journal-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Replays the journal tail on top of a logic that already holds the
+     * snapshot, then starts recording further changes made to it.
+     */
+    public static TaskJournal open(Path snapshotFile, SnapshotFormat snapshotFormat, Path journalFile,
+            ToDoListLogic logic) throws IOException {
+        long snapshotSeq = Files.exists(snapshotFile) ? snapshotFormat.readJournalSeq(snapshotFile) : 0;
+        long lastSeq = snapshotSeq;
+        long validBytes = 0;
+
+        if (Files.exists(journalFile)) {
+            byte[] data = Files.readAllBytes(journalFile);
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            byte[] record;
+            while ((record = nextRecord(buffer)) != null) {
+                validBytes = buffer.position();
+                long seq = ByteBuffer.wrap(record).getLong();
+                if (seq > snapshotSeq) {
+                    apply(logic, record);
+                    lastSeq = seq;
+                }
+            }
+        }
+
+        TaskJournal journal = new TaskJournal(snapshotFile, snapshotFormat, journalFile, lastSeq, validBytes);
+        journal.logic = logic;
+        logic.addChangeListener(journal);
+        journal.writer.start();
+        return journal;
+    }
+
+    @Override
+    public void taskAdded(int index, ToDoListLogic.Task task) {
+        append(OP_ADD_ID, out -> writeTask(out, task), true);
+    }
+
+    // One record per task, but compaction may only start after the last: a snapshot taken mid-batch already
+    // holds the whole batch, and would be stamped with a seq that replays the rest of it on top
+    @Override
+    public void tasksAdded(List<ToDoListLogic.Task> batch) {
+        Iterator<ToDoListLogic.Task> tasks = batch.iterator();
+        while (tasks.hasNext()) {
+            ToDoListLogic.Task task = tasks.next();
+            append(OP_ADD_ID, out -> writeTask(out, task), !tasks.hasNext());
+        }
+    }
+
+    @Override
+    public void taskRemoved(int index, ToDoListLogic.Task task) {
+        append(OP_REMOVE_ID, out -> out.writeLong(task.getId()), true);
+    }
+
+    @Override
+    public void statusChanged(int index, ToDoListLogic.Task task, TaskStatus previous) {
+        append(OP_STATUS_ID, out -> {
+            out.writeLong(task.getId());
+            writeString(out, task.getStatus().getSymbol());
+        }, true);
+    }
+
+    /**
+     * Sets the listener told when a write fails. If one has failed already,
+     * it is told right away, on the calling thread.
+     */
+    public void setFailureListener(FailureListener listener) {
+        IOException failed;
+        synchronized (this) {
+            failureListener = listener;
+            failed = failure;
+        }
+        if (failed != null) {
+            listener.journalFailed(failed);
+        }
+    }
+
+    /** Blocks until every change recorded so far is on disk. */
+    public void flush() throws IOException {
+        synchronized (this) {
+            long target = appendedSeq;
+            while (durableSeq < target && failure == null) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while flushing the journal", e);
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /** Flushes outstanding records and stops the background threads. */
+    public void close() throws IOException {
+        logic.removeChangeListener(this);
+        try {
+            flush();
+        } finally {
+            compactor.shutdown();
+            try {
+                // Let a running compaction finish so the writer can still trim the journal
+                compactor.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            synchronized (this) {
+                closed = true;
+                notifyAll();
+            }
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            channel.close();
+        }
+    }
+
+    private interface RecordBody {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    // Runs on the thread that changed the logic; only encodes and queues the record. mayCompact is false for
+    // records the same store write is still adding to.
+    private void append(byte op, RecordBody body, boolean mayCompact) {
+        boolean startCompaction;
+        long seq;
+        synchronized (this) {
+            if (closed || failure != null) {
+                return; // After a failed write nothing more is queued; the listener has been told
+            }
+            seq = ++appendedSeq;
+            byte[] record = encode(seq, op, body);
+            pending.add(record);
+            journalBytes += record.length;
+            startCompaction = mayCompact && !compacting && journalBytes > COMPACT_THRESHOLD;
+            if (startCompaction) {
+                compacting = true;
+            }
+            notifyAll();
+        }
+        if (startCompaction) {
+            // The caller still holds the store's write lock, so the snapshot ends exactly at record seq
+            List<ToDoListLogic.Task> snapshot = logic.getStore().snapshot();
+            compactor.execute(() -> compact(snapshot, seq));
+        }
+    }
+
+    private void writeLoop() {
+        while (true) {
+            List<byte[]> batch;
+            long batchSeq;
+            long truncate;
+            synchronized (this) {
+                while (pending.isEmpty() && truncateUpTo < 0 && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (pending.isEmpty() && truncateUpTo < 0 && closed) {
+                    return;
+                }
+                batch = pending;
+                pending = new ArrayList<>();
+                batchSeq = appendedSeq;
+                truncate = truncateUpTo;
+                truncateUpTo = -1;
+            }
+
+            long start = TaskMetrics.now();
+            try {
+                for (byte[] record : batch) {
+                    ByteBuffer buffer = ByteBuffer.wrap(record);
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                }
+                channel.force(false); // One fsync for the whole batch
+                WRITE.record(start);
+                RECORDS.add(batch.size());
+                if (truncate >= 0) {
+                    dropRecordsUpTo(truncate);
+                }
+                synchronized (this) {
+                    durableSeq = batchSeq;
+                    notifyAll();
+                }
+            } catch (IOException | RuntimeException e) {
+                IOException failed = e instanceof IOException ? (IOException) e : new IOException(e);
+                FailureListener listener;
+                synchronized (this) {
+                    failure = failed;
+                    pending = new ArrayList<>(); // Never written now, so not kept either
+                    listener = failureListener;
+                    notifyAll();
+                }
+                if (listener != null) {
+                    listener.journalFailed(failed);
+                }
+                return;
+            }
+        }
+    }
+
+    private void compact(List<ToDoListLogic.Task> tasks, long seq) {
+        long start = TaskMetrics.now();
+        try {
+            Path temp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+            snapshotFormat.write(temp, tasks, seq);
+            try (FileChannel snapshot = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                snapshot.force(true);
+            }
+            Files.move(temp, snapshotFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            synchronized (this) {
+                truncateUpTo = seq;
+                notifyAll();
+            }
+            COMPACT.record(start);
+        } catch (IOException e) {
+            // The old snapshot and the full journal are still intact; try again on a later change
+        } finally {
+            synchronized (this) {
+                compacting = false;
+            }
+        }
+    }
+
+    // Writer thread only: rewrites the journal keeping just the records after the snapshot
+    private void dropRecordsUpTo(long seq) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+        channel.read(buffer, 0);
+        buffer.flip();
+
+        Path temp = journalFile.resolveSibling(journalFile.getFileName() + ".tmp");
+        long kept = 0;
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                int start = buffer.position();
+                byte[] record = nextRecord(buffer);
+                if (record == null) {
+                    break;
+                }
+                if (ByteBuffer.wrap(record).getLong() > seq) {
+                    ByteBuffer frame = ByteBuffer.wrap(buffer.array(), start, buffer.position() - start);
+                    kept += frame.remaining();
+                    while (frame.hasRemaining()) {
+                        out.write(frame);
+                    }
+                }
+            }
+            out.force(false);
+        }
+
+        // Windows cannot rename over an open file, so close the channel around the swap
+        channel.close();
+        try {
+            Files.move(temp, journalFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            channel = FileChannel.open(journalFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+        }
+        synchronized (this) {
+            journalBytes = kept + pendingBytes();
+        }
+    }
+
+    private long pendingBytes() {
+        long bytes = 0;
+        for (byte[] record : pending) {
+            bytes += record.length;
+        }
+        return bytes;
+    }
+
+    private static byte[] encode(long seq, byte op, RecordBody body) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0); // Length, filled in below
+            out.writeLong(seq);
+            out.writeByte(op);
+            body.write(out);
+            out.writeInt(0); // CRC, filled in below
+
+            byte[] frame = bytes.toByteArray();
+            int length = frame.length - 8;
+            CRC32 crc = new CRC32();
+            crc.update(frame, 4, length);
+            ByteBuffer.wrap(frame).putInt(0, length).putInt(frame.length - 4, (int) crc.getValue());
+            return frame;
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // Cannot happen for an in-memory stream
+        }
+    }
+
+    // Returns the next record body (seq, op, payload) or null at the end or at a torn/corrupt record
+    private static byte[] nextRecord(ByteBuffer buffer) {
+        if (buffer.remaining() < 4) {
+            return null;
+        }
+        int start = buffer.position();
+        int length = buffer.getInt();
+        if (length < 9 || buffer.remaining() < length + 4) {
+            buffer.position(start);
+            return null;
+        }
+        byte[] record = new byte[length];
+        buffer.get(record);
+        CRC32 crc = new CRC32();
+        crc.update(record, 0, length);
+        if (buffer.getInt() != (int) crc.getValue()) {
+            buffer.position(start);
+            return null;
+        }
+        return record;
+    }
+
+    private static void apply(ToDoListLogic logic, byte[] record) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        in.readLong(); // seq
+        byte op = in.readByte();
+        switch (op) {
+            case OP_ADD:
+                String name = readString(in);
+                String priority = readString(in);
+                TaskStatus status = TaskStatus.fromSymbol(readString(in));
+                logic.addTask(new ToDoListLogic.Task(name, priority, status));
+                break;
+            case OP_REMOVE:
+                logic.removeTask(in.readInt());
+                break;
+            case OP_STATUS:
+                logic.setStatus(in.readInt(), TaskStatus.fromSymbol(readString(in)));
+                break;
+            case OP_ADD_ID:
+                long id = in.readLong();
+                ToDoListLogic.Task task = new ToDoListLogic.Task(id, readString(in), readString(in),
+                        TaskStatus.fromSymbol(readString(in)));
+                // Ids are never reused, so a task already there came from a snapshot that covers this record
+                if (logic.getStore().getById(id) == null) {
+                    logic.addTask(task);
+                }
+                break;
+            case OP_REMOVE_ID:
+                logic.removeTaskById(in.readLong());
+                break;
+            case OP_STATUS_ID:
+                logic.setStatusById(in.readLong(), TaskStatus.fromSymbol(readString(in)));
+                break;
+            default:
+                throw new IOException("Unknown journal record type " + op);
+        }
+    }
+
+    private static void writeTask(DataOutputStream out, ToDoListLogic.Task task) throws IOException {
+        out.writeLong(task.getId());
+        writeString(out, task.getName());
+        writeString(out, task.getPriority());
+        writeString(out, task.getStatus().getSymbol());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
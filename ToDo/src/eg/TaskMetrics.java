@@ -0,0 +1,382 @@
+package eg;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms for the task engine's hot paths: adds,
+ * removals and status changes through ToDoListLogic, sorting, search, the
+ * table refreshes and loading and saving. Off unless the JVM is started
+ * with {@code -Dtodo.metrics=true}; the switch is a static final, so when it
+ * is off the JIT drops the recording calls and their clock reads entirely.
+ *
+ * <p>Call sites keep their metric in a static field and time an operation
+ * with {@code long start = TaskMetrics.now(); ... LATENCY.record(start);}.
+ * Recording allocates nothing: a latency lands in a log-linear histogram
+ * bucket (eight per power of two, so within 12.5% of the true value) in
+ * one of several stripes picked by thread, and stripes are only summed
+ * when the metrics are read.
+ *
+ * <p>When on, the metrics are published over JMX as {@value #OBJECT_NAME}
+ * and written to todo-metrics.txt and todo-metrics.json in the working
+ * directory every {@code -Dtodo.metrics.dumpSeconds} seconds (60 by
+ * default, 0 for never) and once more on exit.
+ */
+public final class TaskMetrics {
+
+    static final boolean ENABLED = Boolean.getBoolean("todo.metrics");
+    static final String OBJECT_NAME = "eg:type=TaskMetrics";
+    private static final long DUMP_SECONDS = Long.getLong("todo.metrics.dumpSeconds", 60);
+    private static final Path TEXT_FILE = Paths.get("todo-metrics.txt");
+    private static final Path JSON_FILE = Paths.get("todo-metrics.json");
+    // Enough stripes that threads on different cores rarely share one; a power of two so the pick is a mask
+    private static final int STRIPES = Math.min(64, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1);
+
+    private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+    private static final Map<String, Latency> LATENCIES = new ConcurrentHashMap<>();
+
+    static {
+        if (ENABLED) {
+            start();
+        }
+    }
+
+    private TaskMetrics() {
+    }
+
+    /** What JMX clients see. */
+    public interface MetricsMXBean {
+        Map<String, Long> getCounters();
+
+        List<Summary> getLatencies();
+
+        String getReport();
+    }
+
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, Counter::new);
+    }
+
+    public static Latency latency(String name) {
+        return LATENCIES.computeIfAbsent(name, Latency::new);
+    }
+
+    // Start time for Latency.record; 0 without reading the clock when metrics are off
+    public static long now() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /** A count, such as tasks loaded. */
+    public static final class Counter {
+        private final String name;
+        private final LongAdder count = new LongAdder();
+
+        private Counter(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void increment() {
+            if (ENABLED) {
+                count.increment();
+            }
+        }
+
+        public void add(long amount) {
+            if (ENABLED) {
+                count.add(amount);
+            }
+        }
+
+        public long get() {
+            return count.sum();
+        }
+    }
+
+    /** Histogram of how long an operation took, in nanoseconds. */
+    public static final class Latency {
+        // Values below SUB ns get a bucket each; every power of two above that is split into SUB buckets
+        private static final int SUB_BITS = 3;
+        private static final int SUB = 1 << SUB_BITS;
+        static final int BUCKETS = (63 - SUB_BITS + 1) * SUB;
+        // Slots after the buckets in each stripe
+        private static final int SUM = BUCKETS;
+        private static final int MAX = BUCKETS + 1;
+
+        private final String name;
+        // null when metrics are off
+        private final AtomicLongArray[] stripes;
+
+        private Latency(String name) {
+            this.name = name;
+            if (ENABLED) {
+                stripes = new AtomicLongArray[STRIPES];
+                for (int s = 0; s < STRIPES; s++) {
+                    stripes[s] = new AtomicLongArray(BUCKETS + 2);
+                }
+            } else {
+                stripes = null;
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        // Records the time since start, a value from TaskMetrics.now()
+        public void record(long start) {
+            if (ENABLED) {
+                recordNanos(System.nanoTime() - start);
+            }
+        }
+
+        public void recordNanos(long nanos) {
+            if (!ENABLED) {
+                return;
+            }
+            nanos = Math.max(0, nanos);
+            AtomicLongArray stripe = stripes[(int) Thread.currentThread().getId() & (STRIPES - 1)];
+            stripe.incrementAndGet(bucket(nanos));
+            stripe.addAndGet(SUM, nanos);
+            long max = stripe.get(MAX);
+            while (nanos > max && !stripe.compareAndSet(MAX, max, nanos)) {
+                max = stripe.get(MAX);
+            }
+        }
+
+        // Sums the stripes; recordings made meanwhile may or may not be included
+        public Summary summary() {
+            long[] counts = new long[BUCKETS];
+            long sum = 0;
+            long max = 0;
+            if (stripes != null) {
+                for (AtomicLongArray stripe : stripes) {
+                    for (int b = 0; b < BUCKETS; b++) {
+                        counts[b] += stripe.get(b);
+                    }
+                    sum += stripe.get(SUM);
+                    max = Math.max(max, stripe.get(MAX));
+                }
+            }
+            return new Summary(name, counts, sum, max);
+        }
+
+        static int bucket(long nanos) {
+            if (nanos < SUB) {
+                return (int) nanos;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+            int sub = (int) (nanos >>> (exponent - SUB_BITS)) & (SUB - 1);
+            return (exponent - SUB_BITS + 1) * SUB + sub;
+        }
+
+        // Largest value that lands in the bucket
+        static long highest(int bucket) {
+            if (bucket < SUB) {
+                return bucket;
+            }
+            int exponent = bucket / SUB + SUB_BITS - 1;
+            long lowest = (long) (SUB + bucket % SUB) << (exponent - SUB_BITS);
+            return lowest + (1L << (exponent - SUB_BITS)) - 1;
+        }
+    }
+
+    /** A latency histogram as read at one moment, with times in microseconds. */
+    public static final class Summary {
+        private final String name;
+        private final long count;
+        private final double meanMicros;
+        private final double p50Micros;
+        private final double p90Micros;
+        private final double p99Micros;
+        private final double p999Micros;
+        private final double maxMicros;
+
+        private Summary(String name, long[] counts, long sum, long max) {
+            long total = 0;
+            for (long c : counts) {
+                total += c;
+            }
+            this.name = name;
+            this.count = total;
+            meanMicros = total == 0 ? 0 : sum / 1000.0 / total;
+            p50Micros = percentile(counts, total, 0.50, max);
+            p90Micros = percentile(counts, total, 0.90, max);
+            p99Micros = percentile(counts, total, 0.99, max);
+            p999Micros = percentile(counts, total, 0.999, max);
+            maxMicros = max / 1000.0;
+        }
+
+        // The bucket holding the value below which the fraction of recordings fall, as its largest value
+        private static double percentile(long[] counts, long total, double fraction, long max) {
+            long rank = (long) Math.ceil(fraction * total);
+            long seen = 0;
+            for (int b = 0; b < counts.length && total > 0; b++) {
+                seen += counts[b];
+                if (seen >= rank) {
+                    return Math.min(Latency.highest(b), max) / 1000.0;
+                }
+            }
+            return 0;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMeanMicros() {
+            return meanMicros;
+        }
+
+        public double getP50Micros() {
+            return p50Micros;
+        }
+
+        public double getP90Micros() {
+            return p90Micros;
+        }
+
+        public double getP99Micros() {
+            return p99Micros;
+        }
+
+        public double getP999Micros() {
+            return p999Micros;
+        }
+
+        public double getMaxMicros() {
+            return maxMicros;
+        }
+    }
+
+    public static Map<String, Long> counters() {
+        Map<String, Long> values = new TreeMap<>();
+        for (Counter counter : COUNTERS.values()) {
+            values.put(counter.getName(), counter.get());
+        }
+        return values;
+    }
+
+    // Only latencies that have recorded something, by name
+    public static List<Summary> latencies() {
+        List<Summary> summaries = new ArrayList<>();
+        for (Latency latency : new TreeMap<>(LATENCIES).values()) {
+            Summary summary = latency.summary();
+            if (summary.getCount() > 0) {
+                summaries.add(summary);
+            }
+        }
+        return summaries;
+    }
+
+    public static String report() {
+        StringBuilder text = new StringBuilder();
+        text.append("Task metrics at ").append(Instant.now()).append(System.lineSeparator());
+        for (Map.Entry<String, Long> counter : counters().entrySet()) {
+            text.append(String.format(Locale.ROOT, "%-24s %d%n", counter.getKey(), counter.getValue()));
+        }
+        for (Summary s : latencies()) {
+            text.append(String.format(Locale.ROOT, "%-24s count=%d mean=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus%n",
+                    s.getName(), s.getCount(), s.getMeanMicros(), s.getP50Micros(), s.getP90Micros(),
+                    s.getP99Micros(), s.getP999Micros(), s.getMaxMicros()));
+        }
+        return text.toString();
+    }
+
+    public static String json() {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"time\":\"").append(Instant.now()).append("\",\"counters\":{");
+        String separator = "";
+        for (Map.Entry<String, Long> counter : counters().entrySet()) {
+            json.append(separator).append('"').append(counter.getKey()).append("\":").append(counter.getValue());
+            separator = ",";
+        }
+        json.append("},\"latencies\":{");
+        separator = "";
+        for (Summary s : latencies()) {
+            json.append(separator).append(String.format(Locale.ROOT,
+                    "\"%s\":{\"count\":%d,\"meanMicros\":%.3f,\"p50Micros\":%.3f,\"p90Micros\":%.3f,"
+                            + "\"p99Micros\":%.3f,\"p999Micros\":%.3f,\"maxMicros\":%.3f}",
+                    s.getName(), s.getCount(), s.getMeanMicros(), s.getP50Micros(), s.getP90Micros(),
+                    s.getP99Micros(), s.getP999Micros(), s.getMaxMicros()));
+            separator = ",";
+        }
+        return json.append("}}").append(System.lineSeparator()).toString();
+    }
+
+    // Replaces both dump files; a reader never sees a half-written one
+    public static void dump() {
+        try {
+            write(TEXT_FILE, report());
+            write(JSON_FILE, json());
+        } catch (IOException e) {
+            // Metrics are best effort; the next dump tries again
+        }
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, content.getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void start() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new Bean(), new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            // Already registered, as by a second class loader in the same JVM; the dump still works
+        }
+        if (DUMP_SECONDS > 0) {
+            ScheduledExecutorService dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "todo-metrics");
+                thread.setDaemon(true);
+                return thread;
+            });
+            dumper.scheduleWithFixedDelay(TaskMetrics::dump, DUMP_SECONDS, DUMP_SECONDS, TimeUnit.SECONDS);
+            Runtime.getRuntime().addShutdownHook(new Thread(TaskMetrics::dump, "todo-metrics-exit"));
+        }
+    }
+
+    private static final class Bean implements MetricsMXBean {
+        @Override
+        public Map<String, Long> getCounters() {
+            return counters();
+        }
+
+        @Override
+        public List<Summary> getLatencies() {
+            return latencies();
+        }
+
+        @Override
+        public String getReport() {
+            return report();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package eg;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An ordering of tasks by one or more keys, for example status, then
+ * priority, then newest first:
+ *
+ * <pre>
+ * TaskOrder order = TaskOrder.by(TaskOrder.Key.STATUS).then(TaskOrder.Key.PRIORITY).thenDescending(TaskOrder.Key.CREATED);
+ * ToDoListLogic.Task[] sorted = order.sort(store.snapshot());
+ * </pre>
+ *
+ * Ties left after the last key are broken by creation order, so the result
+ * is always the same for the same tasks. {@link #PRIORITY} alone is the
+ * order TaskStore shows.
+ *
+ * <p>Instances are immutable and may be shared between threads. Sort a
+ * snapshot rather than live tasks: a status changed by another thread in
+ * the middle of a sort would make the comparison inconsistent.
+ */
+public final class TaskOrder {
+
+    public enum Key {
+        PRIORITY(Comparator.comparingInt(ToDoListLogic.Task::getPriorityLevel)),
+        // Unknown, done, not done: the TaskStatus declaration order
+        STATUS(Comparator.comparingInt(task -> task.getStatus().ordinal())),
+        NAME((a, b) -> compareNames(a.getName(), b.getName())),
+        // Ids are handed out in the order tasks were added
+        CREATED(Comparator.comparingLong(ToDoListLogic.Task::getId));
+
+        private final Comparator<ToDoListLogic.Task> comparator;
+
+        Key(Comparator<ToDoListLogic.Task> comparator) {
+            this.comparator = comparator;
+        }
+    }
+
+    /** The order TaskStore shows: priority, then creation order. */
+    public static final TaskOrder PRIORITY = by(Key.PRIORITY);
+
+    // Arrays this short are insertion sorted in place; it beats the setup cost of a merge sort
+    static final int INSERTION_SORT_MAX = 32;
+    private static final TaskMetrics.Latency SORT = TaskMetrics.latency("order.sort");
+
+    private final List<Key> keys;
+    private final List<Boolean> descending;
+    // The keys with the creation order tie-break appended, as the comparator and TaskSorter use them
+    private final List<Key> sortKeys;
+    private final List<Boolean> sortDescending;
+    private final Comparator<ToDoListLogic.Task> comparator;
+
+    private TaskOrder(List<Key> keys, List<Boolean> descending) {
+        this.keys = Collections.unmodifiableList(keys);
+        this.descending = Collections.unmodifiableList(descending);
+        if (keys.contains(Key.CREATED)) {
+            sortKeys = this.keys;
+            sortDescending = this.descending;
+        } else {
+            List<Key> tieBroken = new ArrayList<>(keys);
+            tieBroken.add(Key.CREATED);
+            List<Boolean> tieBrokenDescending = new ArrayList<>(descending);
+            tieBrokenDescending.add(false);
+            sortKeys = Collections.unmodifiableList(tieBroken);
+            sortDescending = Collections.unmodifiableList(tieBrokenDescending);
+        }
+        Comparator<ToDoListLogic.Task> chain = null;
+        for (int i = 0; i < sortKeys.size(); i++) {
+            Comparator<ToDoListLogic.Task> next = sortKeys.get(i).comparator;
+            next = sortDescending.get(i) ? next.reversed() : next;
+            chain = chain == null ? next : chain.thenComparing(next);
+        }
+        comparator = chain;
+    }
+
+    public static TaskOrder by(Key key) {
+        return new TaskOrder(Collections.singletonList(key), Collections.singletonList(false));
+    }
+
+    public static TaskOrder byDescending(Key key) {
+        return new TaskOrder(Collections.singletonList(key), Collections.singletonList(true));
+    }
+
+    public TaskOrder then(Key key) {
+        return with(key, false);
+    }
+
+    public TaskOrder thenDescending(Key key) {
+        return with(key, true);
+    }
+
+    public Comparator<ToDoListLogic.Task> comparator() {
+        return comparator;
+    }
+
+    /**
+     * Returns the tasks sorted into a new array, leaving the list as it is.
+     * Short lists are insertion sorted with the comparator; longer ones go
+     * to TaskSorter, which sorts primitive copies of the keys and splits
+     * the work across the fork/join common pool once there are enough tasks
+     * to pay for it. The sort is stable.
+     */
+    public ToDoListLogic.Task[] sort(List<ToDoListLogic.Task> tasks) {
+        long start = TaskMetrics.now();
+        ToDoListLogic.Task[] array = tasks.toArray(new ToDoListLogic.Task[0]);
+        if (array.length <= INSERTION_SORT_MAX) {
+            insertionSort(array, comparator);
+        } else {
+            array = TaskSorter.sort(array, sortKeys, sortDescending);
+        }
+        SORT.record(start);
+        return array;
+    }
+
+    /**
+     * Case-insensitive order of names: char by char, each char folded as
+     * String.CASE_INSENSITIVE_ORDER folds it.
+     */
+    static int compareNames(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        for (int i = 0; i < length; i++) {
+            char x = a.charAt(i);
+            char y = b.charAt(i);
+            if (x != y) {
+                x = fold(x);
+                y = fold(y);
+                if (x != y) {
+                    return x - y;
+                }
+            }
+        }
+        return a.length() - b.length();
+    }
+
+    static char fold(char c) {
+        if (c < 0x80) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private TaskOrder with(Key key, boolean descendingKey) {
+        if (keys.contains(key)) {
+            throw new IllegalArgumentException("Already ordered by " + key);
+        }
+        List<Key> moreKeys = new ArrayList<>(keys);
+        moreKeys.add(key);
+        List<Boolean> moreDescending = new ArrayList<>(descending);
+        moreDescending.add(descendingKey);
+        return new TaskOrder(moreKeys, moreDescending);
+    }
+
+    private static void insertionSort(ToDoListLogic.Task[] tasks, Comparator<ToDoListLogic.Task> comparator) {
+        for (int i = 1; i < tasks.length; i++) {
+            ToDoListLogic.Task task = tasks[i];
+            int j = i - 1;
+            while (j >= 0 && comparator.compare(tasks[j], task) > 0) {
+                tasks[j + 1] = tasks[j];
+                j--;
+            }
+            tasks[j + 1] = task;
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < keys.size(); i++) {
+            if (i > 0) {
+                text.append(", ");
+            }
+            text.append(keys.get(i)).append(descending.get(i) ? " desc" : "");
+        }
+        return text.toString();
+    }
+}
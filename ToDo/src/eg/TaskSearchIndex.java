@@ -0,0 +1,409 @@
+package eg;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Inverted index over task names: each lower-cased word maps to the tasks
+ * whose name contains it. Words are kept in a TreeMap so a query word
+ * matches every indexed word it is a prefix of ("rep" finds "report" and
+ * "repair"); all query words must match.
+ *
+ * <p>The index follows the store as a ChangeListener. Postings hold the tasks
+ * themselves sorted by id, so an add is usually an append and a remove is a
+ * binary search. A word used by a single task maps straight to that task,
+ * which keeps the many one-off words (numbers, codes) cheap.
+ */
+public final class TaskSearchIndex implements TaskStore.ChangeListener {
+
+    private static final int REBUILD_CHUNK = 64 * 1024;
+    private static final TaskMetrics.Latency SEARCH = TaskMetrics.latency("search.query");
+
+    private static final Comparator<ToDoListLogic.Task> BY_ID = Comparator.comparingLong(task -> task.id);
+
+    /** The first matches of a query plus how many there were in total. */
+    public static final class Result {
+        private final List<ToDoListLogic.Task> tasks;
+        private final int total;
+
+        Result(List<ToDoListLogic.Task> tasks, int total) {
+            this.tasks = tasks;
+            this.total = total;
+        }
+
+        // In visible order
+        public List<ToDoListLogic.Task> getTasks() {
+            return tasks;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+    }
+
+    private final TaskStore store;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock; values are a Task or, for words shared by several tasks, Postings
+    private TreeMap<String, Object> words = new TreeMap<>();
+    // Changes that arrive while the initial build runs, replayed onto the result
+    private List<Object[]> buffered = new ArrayList<>();
+
+    private TaskSearchIndex(TaskStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Indexes everything in the store, splitting the work across the common
+     * pool, and keeps the index up to date from then on. Writers are not
+     * blocked while the build runs.
+     */
+    public static TaskSearchIndex attach(TaskStore store) {
+        TaskSearchIndex index = new TaskSearchIndex(store);
+        TreeMap<String, Object> built = build(store.addChangeListener(index));
+
+        index.lock.writeLock().lock();
+        try {
+            // The changes made during the build, all of them after the snapshot it read
+            for (Object[] change : index.buffered) {
+                ToDoListLogic.Task task = (ToDoListLogic.Task) change[1];
+                if ((Boolean) change[0]) {
+                    addTask(built, task);
+                } else {
+                    removeTask(built, task);
+                }
+            }
+            index.buffered = null;
+            index.words = built;
+        } finally {
+            index.lock.writeLock().unlock();
+        }
+        return index;
+    }
+
+    public void detach() {
+        store.removeChangeListener(this);
+    }
+
+    /** Up to {@code limit} tasks matching every word of the query, in visible order. */
+    public Result search(String query, int limit) {
+        long start = TaskMetrics.now();
+        Result result = find(query, limit);
+        SEARCH.record(start);
+        return result;
+    }
+
+    private Result find(String query, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return new Result(Collections.emptyList(), 0);
+        }
+        lock.readLock().lock();
+        try {
+            // Collect the candidates of the rarest word, then check the other words against each name
+            String rarest = null;
+            long fewest = Long.MAX_VALUE;
+            for (String term : terms) {
+                long count = 0;
+                for (Object value : prefixed(term).values()) {
+                    count += value instanceof Postings ? ((Postings) value).size : 1;
+                }
+                if (count < fewest) {
+                    fewest = count;
+                    rarest = term;
+                }
+            }
+            if (fewest == 0) {
+                return new Result(Collections.emptyList(), 0);
+            }
+
+            List<String> others = new ArrayList<>(terms);
+            others.remove(rarest);
+            Map<String, Object> range = prefixed(rarest);
+            // One word's postings are in id order, so the first matches per priority bucket are the best ones
+            boolean single = range.size() == 1;
+            Set<ToDoListLogic.Task> seen = single ? null : Collections.newSetFromMap(new IdentityHashMap<>());
+            List<List<ToDoListLogic.Task>> buckets = new ArrayList<>(PriorityBuckets.BUCKETS);
+            for (int b = 0; b < PriorityBuckets.BUCKETS; b++) {
+                buckets.add(new ArrayList<>());
+            }
+
+            int total = 0;
+            for (Object value : range.values()) {
+                ToDoListLogic.Task[] tasks = value instanceof Postings
+                        ? ((Postings) value).tasks : new ToDoListLogic.Task[]{(ToDoListLogic.Task) value};
+                int size = value instanceof Postings ? ((Postings) value).size : 1;
+                if (single && others.isEmpty()) {
+                    // Every task matches: the count is known and the scan can stop once the first bucket is full
+                    total = size;
+                    for (int i = 0; i < size && buckets.get(0).size() < limit; i++) {
+                        List<ToDoListLogic.Task> bucket = buckets.get(PriorityBuckets.bucketOf(tasks[i]));
+                        if (bucket.size() < limit) {
+                            bucket.add(tasks[i]);
+                        }
+                    }
+                    break;
+                }
+                for (int i = 0; i < size; i++) {
+                    ToDoListLogic.Task task = tasks[i];
+                    // A name with two words sharing the prefix appears under both
+                    if (seen != null && !seen.add(task) || !matchesAll(task, others)) {
+                        continue;
+                    }
+                    total++;
+                    List<ToDoListLogic.Task> bucket = buckets.get(PriorityBuckets.bucketOf(task));
+                    if (!single || bucket.size() < limit) {
+                        bucket.add(task);
+                    }
+                }
+            }
+
+            List<ToDoListLogic.Task> result = new ArrayList<>(Math.min(limit, total));
+            for (List<ToDoListLogic.Task> bucket : buckets) {
+                if (!single) {
+                    bucket.sort(BY_ID);
+                }
+                result.addAll(bucket.subList(0, Math.min(bucket.size(), limit - result.size())));
+            }
+            return new Result(result, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Number of distinct words indexed
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return words.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void taskAdded(int index, ToDoListLogic.Task task) {
+        change(true, Collections.singletonList(task));
+    }
+
+    @Override
+    public void tasksAdded(List<ToDoListLogic.Task> batch) {
+        change(true, batch);
+    }
+
+    @Override
+    public void taskRemoved(int index, ToDoListLogic.Task task) {
+        change(false, Collections.singletonList(task));
+    }
+
+    @Override
+    public void statusChanged(int index, ToDoListLogic.Task task, TaskStatus previous) {
+        // Only names are indexed, but results should carry the new status: adding puts the task in place of its old copy
+        change(true, Collections.singletonList(task));
+    }
+
+    private void change(boolean added, List<ToDoListLogic.Task> tasks) {
+        lock.writeLock().lock();
+        try {
+            for (ToDoListLogic.Task task : tasks) {
+                if (buffered != null) {
+                    buffered.add(new Object[]{added, task});
+                } else if (added) {
+                    addTask(words, task);
+                } else {
+                    removeTask(words, task);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Map<String, Object> prefixed(String term) {
+        return words.subMap(term, true, term + Character.MAX_VALUE, false);
+    }
+
+    private static boolean matchesAll(ToDoListLogic.Task task, List<String> terms) {
+        if (terms.isEmpty()) {
+            return true;
+        }
+        List<String> tokens = tokenize(task.getName());
+        for (String term : terms) {
+            boolean found = false;
+            for (String token : tokens) {
+                if (token.startsWith(term)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static TreeMap<String, Object> build(List<ToDoListLogic.Task> all) {
+        ToDoListLogic.Task[] tasks = all.toArray(new ToDoListLogic.Task[0]);
+        int chunks = (tasks.length + REBUILD_CHUNK - 1) / REBUILD_CHUNK;
+        List<Map<String, List<ToDoListLogic.Task>>> partial = IntStream.range(0, chunks).parallel()
+                .mapToObj(c -> {
+                    Map<String, List<ToDoListLogic.Task>> words = new HashMap<>();
+                    int end = Math.min((c + 1) * REBUILD_CHUNK, tasks.length);
+                    for (int i = c * REBUILD_CHUNK; i < end; i++) {
+                        ToDoListLogic.Task task = tasks[i];
+                        for (String token : tokenize(task.getName())) {
+                            words.computeIfAbsent(token, k -> new ArrayList<>(2)).add(task);
+                        }
+                    }
+                    return words;
+                })
+                .collect(Collectors.toList());
+
+        Map<String, List<ToDoListLogic.Task>> merged = partial.isEmpty() ? new HashMap<>() : partial.get(0);
+        for (int c = 1; c < partial.size(); c++) {
+            for (Map.Entry<String, List<ToDoListLogic.Task>> entry : partial.get(c).entrySet()) {
+                List<ToDoListLogic.Task> list = merged.get(entry.getKey());
+                if (list == null) {
+                    merged.put(entry.getKey(), entry.getValue());
+                } else {
+                    list.addAll(entry.getValue());
+                }
+            }
+        }
+
+        // The input is in visible order, so postings still need sorting by id
+        Map<String, Object> values = merged.entrySet().parallelStream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> {
+                    List<ToDoListLogic.Task> list = entry.getValue();
+                    if (list.size() == 1) {
+                        return list.get(0);
+                    }
+                    ToDoListLogic.Task[] sorted = list.toArray(new ToDoListLogic.Task[0]);
+                    Arrays.sort(sorted, BY_ID);
+                    return new Postings(sorted);
+                }));
+        return new TreeMap<>(values);
+    }
+
+    private static void addTask(TreeMap<String, Object> words, ToDoListLogic.Task task) {
+        for (String token : tokenize(task.getName())) {
+            Object value = words.get(token);
+            if (value == null || value instanceof ToDoListLogic.Task && ((ToDoListLogic.Task) value).id == task.id) {
+                words.put(token, task);
+            } else if (value instanceof Postings) {
+                ((Postings) value).add(task);
+            } else {
+                Postings postings = new Postings(new ToDoListLogic.Task[]{(ToDoListLogic.Task) value});
+                postings.add(task);
+                words.put(token, postings);
+            }
+        }
+    }
+
+    private static void removeTask(TreeMap<String, Object> words, ToDoListLogic.Task task) {
+        for (String token : tokenize(task.getName())) {
+            Object value = words.get(token);
+            if (value instanceof ToDoListLogic.Task && ((ToDoListLogic.Task) value).id == task.id) {
+                words.remove(token);
+            } else if (value instanceof Postings) {
+                Postings postings = (Postings) value;
+                postings.remove(task);
+                if (postings.size == 1) {
+                    words.put(token, postings.tasks[0]);
+                }
+            }
+        }
+    }
+
+    // Lower-cased runs of letters and digits, each word once
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>(4);
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                String token = text.substring(start, i).toLowerCase(Locale.ROOT);
+                if (!tokens.contains(token)) {
+                    tokens.add(token);
+                }
+            }
+        }
+        return tokens;
+    }
+
+    // Tasks sharing one word, ascending by id
+    private static final class Postings {
+        ToDoListLogic.Task[] tasks;
+        int size;
+
+        Postings(ToDoListLogic.Task[] tasks) {
+            this.tasks = tasks;
+            this.size = tasks.length;
+        }
+
+        // Replaces the task with the same id, if there is one
+        void add(ToDoListLogic.Task task) {
+            int pos = search(task.id);
+            if (pos >= 0) {
+                tasks[pos] = task;
+                return;
+            }
+            pos = -pos - 1;
+            if (size == tasks.length) {
+                tasks = Arrays.copyOf(tasks, size + (size >> 1) + 1);
+            }
+            System.arraycopy(tasks, pos, tasks, pos + 1, size - pos);
+            tasks[pos] = task;
+            size++;
+        }
+
+        void remove(ToDoListLogic.Task task) {
+            int pos = search(task.id);
+            if (pos < 0) {
+                return;
+            }
+            System.arraycopy(tasks, pos + 1, tasks, pos, size - pos - 1);
+            tasks[--size] = null;
+        }
+
+        private int search(long id) {
+            // New tasks have the highest id, so check the end before searching
+            if (size > 0 && tasks[size - 1].id < id) {
+                return -(size + 1);
+            }
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                long midId = tasks[mid].id;
+                if (midId < id) {
+                    low = mid + 1;
+                } else if (midId > id) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package eg;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Sorts tasks for {@link TaskOrder}. A comparator walking Task objects
+ * touches two objects scattered across the heap for every comparison, so
+ * the keys are read once into primitive columns instead: priority bucket,
+ * status and id are packed, in key order, into as few longs per row as
+ * they fit in, and names are kept as a String column. Names are preceded
+ * by a long holding their first case-folded chars after the prefix all
+ * names share, so most name comparisons never leave the primitive columns. Rows are then sorted by index:
+ *
+ * <ul>
+ * <li>when every key fits in one long with room left for the row index,
+ *     key and index are packed together and sorted as plain longs;
+ * <li>otherwise the indexes are merge sorted on the fork/join common pool,
+ *     each carrying its first column value so that the other columns are
+ *     only read to break ties.
+ * </ul>
+ *
+ * Both are stable and give the same order as {@link TaskOrder#comparator()}.
+ */
+final class TaskSorter {
+
+    // Below this many rows a fork/join merge sort sorts on the calling thread, as Arrays.parallelSort does
+    private static final int PARALLEL_MIN = 1 << 13;
+    // Runs this short are insertion sorted before merging
+    private static final int RUN = 32;
+
+    // Key columns, compared in order; exactly one of packed[c] and names[c] is set
+    private final long[][] packed;
+    private final String[][] names;
+    private final boolean[] descendingNames;
+    // Bits used in packed[0], to see whether the row index still fits beside them
+    private final int firstColumnBits;
+
+    // Merge sort state: row numbers and their packed[0] value, moved together so merges read them in sequence
+    // and only ties reach into the other columns
+    private int[] rows;
+    private long[] lead;
+    private int[] rowBuffer;
+    private long[] leadBuffer;
+
+    private TaskSorter(long[][] packed, String[][] names, boolean[] descendingNames, int firstColumnBits) {
+        this.packed = packed;
+        this.names = names;
+        this.descendingNames = descendingNames;
+        this.firstColumnBits = firstColumnBits;
+    }
+
+    static ToDoListLogic.Task[] sort(ToDoListLogic.Task[] tasks, List<TaskOrder.Key> keys, List<Boolean> descending) {
+        TaskSorter sorter = extract(tasks, keys, descending);
+        int n = tasks.length;
+        ToDoListLogic.Task[] sorted = new ToDoListLogic.Task[n];
+        int indexBits = 32 - Integer.numberOfLeadingZeros(n);
+        if (sorter.packed.length == 1 && sorter.firstColumnBits + indexBits <= 63) {
+            long[] column = sorter.packed[0];
+            long[] rows = new long[n];
+            for (int i = 0; i < n; i++) {
+                rows[i] = column[i] << indexBits | i;
+            }
+            Arrays.parallelSort(rows);
+            long indexMask = (1L << indexBits) - 1;
+            for (int i = 0; i < n; i++) {
+                sorted[i] = tasks[(int) (rows[i] & indexMask)];
+            }
+            return sorted;
+        }
+
+        sorter.rows = new int[n];
+        for (int i = 0; i < n; i++) {
+            sorter.rows[i] = i;
+        }
+        sorter.lead = sorter.packed[0].clone();
+        sorter.rowBuffer = new int[n];
+        sorter.leadBuffer = new long[n];
+        if (n < PARALLEL_MIN || ForkJoinPool.getCommonPoolParallelism() == 1) {
+            sorter.mergeSort(0, n);
+        } else {
+            ForkJoinPool.commonPool().invoke(sorter.new MergeSortTask(0, n));
+        }
+        for (int i = 0; i < n; i++) {
+            sorted[i] = tasks[sorter.rows[i]];
+        }
+        return sorted;
+    }
+
+    private static TaskSorter extract(ToDoListLogic.Task[] tasks, List<TaskOrder.Key> keys, List<Boolean> descending) {
+        int n = tasks.length;
+        // One pass over the tasks, which are scattered across the heap; every later pass reads these arrays
+        long[] ids = new long[n];
+        byte[] buckets = new byte[n];
+        byte[] statuses = new byte[n];
+        String[] taskNames = keys.contains(TaskOrder.Key.NAME) ? new String[n] : null;
+        long minId = n == 0 ? 0 : Long.MAX_VALUE;
+        long maxId = n == 0 ? 0 : Long.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            ToDoListLogic.Task task = tasks[i];
+            ids[i] = task.getId();
+            minId = Math.min(minId, ids[i]);
+            maxId = Math.max(maxId, ids[i]);
+            // The PriorityBuckets bucket: High, Medium, Low, anything else
+            buckets[i] = (byte) (Math.min(task.getPriorityLevel(), PriorityBuckets.BUCKETS) - 1);
+            statuses[i] = (byte) task.getStatus().ordinal();
+            if (taskNames != null) {
+                taskNames[i] = task.getName();
+            }
+        }
+
+        List<long[]> packedColumns = new ArrayList<>();
+        List<String[]> nameColumns = new ArrayList<>();
+        List<Boolean> nameDescending = new ArrayList<>();
+        int firstColumnBits = 0;
+
+        long[] column = null;
+        int used = 0;
+        for (int k = 0; k < keys.size(); k++) {
+            TaskOrder.Key key = keys.get(k);
+            boolean descendingKey = descending.get(k);
+            if (key == TaskOrder.Key.NAME) {
+                packedColumns.add(namePrefixes(taskNames, descendingKey));
+                nameColumns.add(null);
+                nameDescending.add(false);
+                packedColumns.add(null);
+                nameColumns.add(taskNames);
+                nameDescending.add(descendingKey);
+                column = null;
+                continue;
+            }
+
+            // Ids are offset by the smallest one, so they pack into as few bits as their spread needs
+            long min = key == TaskOrder.Key.CREATED ? minId : 0;
+            long spread = key == TaskOrder.Key.CREATED ? maxId - minId : 3;
+            // A spread that overflowed or needs all 64 bits gets a column of its own, compared as signed longs
+            int bits = spread < 0 ? 64 : 64 - Long.numberOfLeadingZeros(spread);
+            if (column == null || used + bits > 63) {
+                column = new long[n];
+                used = 0;
+                packedColumns.add(column);
+                nameColumns.add(null);
+                nameDescending.add(false);
+            }
+            long fieldMask = bits == 64 ? -1L : (1L << bits) - 1;
+            for (int i = 0; i < n; i++) {
+                long value = (key == TaskOrder.Key.CREATED ? ids[i] : key == TaskOrder.Key.STATUS ? statuses[i] : buckets[i]) - min;
+                if (descendingKey) {
+                    value = bits == 64 ? ~value : fieldMask - value;
+                }
+                column[i] = bits == 64 ? value : column[i] << bits | value;
+            }
+            used += bits;
+            if (packedColumns.size() == 1) {
+                firstColumnBits = used;
+            }
+            if (bits == 64) {
+                // Compared with a signed compare; MIN_VALUE offset keeps unsigned order for a full-width spread
+                for (int i = 0; i < n; i++) {
+                    column[i] += Long.MIN_VALUE;
+                }
+                column = null;
+            }
+        }
+
+        boolean[] descendingNames = new boolean[nameDescending.size()];
+        for (int c = 0; c < descendingNames.length; c++) {
+            descendingNames[c] = nameDescending.get(c);
+        }
+        return new TaskSorter(packedColumns.toArray(new long[0][]), nameColumns.toArray(new String[0][]),
+                descendingNames, firstColumnBits);
+    }
+
+    // The case-folded chars after the common prefix, as many as fit in a long: eight while they are all
+    // Latin-1, else four. Missing chars count as 0, so prefixes order like the names and are equal when unsure
+    private static long[] namePrefixes(String[] names, boolean descending) {
+        int common = names.length == 0 ? 0 : names[0].length();
+        for (int i = 1; i < names.length && common > 0; i++) {
+            common = Math.min(common, commonPrefix(names[0], names[i], common));
+        }
+        long[] prefixes = new long[names.length];
+        if (!fillPrefixes(names, common, 8, prefixes)) {
+            fillPrefixes(names, common, 16, prefixes);
+        }
+        for (int i = 0; i < prefixes.length; i++) {
+            // Flipping the sign bit makes a signed compare order the chars as unsigned
+            prefixes[i] = (descending ? ~prefixes[i] : prefixes[i]) ^ Long.MIN_VALUE;
+        }
+        return prefixes;
+    }
+
+    // False if a char does not fit in bitsPerChar
+    private static boolean fillPrefixes(String[] names, int common, int bitsPerChar, long[] prefixes) {
+        int chars = 64 / bitsPerChar;
+        for (int i = 0; i < names.length; i++) {
+            String name = names[i];
+            int end = Math.min(common + chars, name.length());
+            long prefix = 0;
+            for (int c = common; c < end; c++) {
+                char folded = TaskOrder.fold(name.charAt(c));
+                if (folded >>> bitsPerChar != 0) {
+                    return false;
+                }
+                prefix = prefix << bitsPerChar | folded;
+            }
+            prefixes[i] = prefix << (common + chars - end) * bitsPerChar;
+        }
+        return true;
+    }
+
+    private static int commonPrefix(String a, String b, int max) {
+        int length = Math.min(max, Math.min(a.length(), b.length()));
+        int i = 0;
+        while (i < length && TaskOrder.fold(a.charAt(i)) == TaskOrder.fold(b.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    // Compares rows a and b from column 1 on, once their packed[0] values are equal
+    private int compareRest(int a, int b) {
+        for (int c = 1; c < packed.length; c++) {
+            int result;
+            if (packed[c] != null) {
+                result = Long.compare(packed[c][a], packed[c][b]);
+            } else {
+                result = TaskOrder.compareNames(names[c][a], names[c][b]);
+                if (descendingNames[c]) {
+                    result = -result;
+                }
+            }
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    private boolean inOrder(long leadA, int rowA, long leadB, int rowB) {
+        return leadA < leadB || leadA == leadB && compareRest(rowA, rowB) <= 0;
+    }
+
+    // Stable top-down merge sort of positions [from, to)
+    private void mergeSort(int from, int to) {
+        if (to - from <= RUN) {
+            insertionSort(from, to);
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(from, mid);
+        mergeSort(mid, to);
+        merge(from, mid, to);
+    }
+
+    private void insertionSort(int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            int row = rows[i];
+            long key = lead[i];
+            int j = i - 1;
+            while (j >= from && !inOrder(lead[j], rows[j], key, row)) {
+                rows[j + 1] = rows[j];
+                lead[j + 1] = lead[j];
+                j--;
+            }
+            rows[j + 1] = row;
+            lead[j + 1] = key;
+        }
+    }
+
+    private void merge(int from, int mid, int to) {
+        if (inOrder(lead[mid - 1], rows[mid - 1], lead[mid], rows[mid])) {
+            return; // Already in order, as with input that was sorted before an edit
+        }
+        System.arraycopy(rows, from, rowBuffer, from, to - from);
+        System.arraycopy(lead, from, leadBuffer, from, to - from);
+        int left = from;
+        int right = mid;
+        for (int i = from; i < to; i++) {
+            if (right >= to || left < mid && inOrder(leadBuffer[left], rowBuffer[left], leadBuffer[right], rowBuffer[right])) {
+                rows[i] = rowBuffer[left];
+                lead[i] = leadBuffer[left++];
+            } else {
+                rows[i] = rowBuffer[right];
+                lead[i] = leadBuffer[right++];
+            }
+        }
+    }
+
+    private final class MergeSortTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+
+        MergeSortTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from < PARALLEL_MIN) {
+                mergeSort(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new MergeSortTask(from, mid), new MergeSortTask(mid, to));
+            merge(from, mid, to);
+        }
+    }
+}
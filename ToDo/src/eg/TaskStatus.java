@@ -0,0 +1,36 @@
+package eg;
+
+/**
+ * Status of a task. The symbol is what the tables show and what tasks.txt
+ * and the journal store.
+ */
+public enum TaskStatus {
+    UNKNOWN("Unknown"),
+    DONE("✔"),
+    NOT_DONE("✖");
+
+    private final String symbol;
+
+    TaskStatus(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    // Anything that is not a done/not-done mark is treated as Unknown, like the old loader did
+    public static TaskStatus fromSymbol(String symbol) {
+        for (TaskStatus status : values()) {
+            if (status.symbol.equals(symbol)) {
+                return status;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    @Override
+    public String toString() {
+        return symbol;
+    }
+}
@@ -0,0 +1,610 @@
+package eg;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Headless, thread-safe task engine. Any number of threads (the GUI,
+ * importers, sync jobs) may add and update tasks concurrently; writes are
+ * serialised by a lock. Reads take no lock: each write ends by publishing a
+ * {@link Snapshot}, and readers use the latest one. Snapshots share the
+ * store's tree nodes (see PriorityBuckets), so publishing one is cheap and a
+ * reader never holds up a writer or sees a write half done.
+ *
+ * <p>Publishing is lazy about the copying. A write only copies the nodes it
+ * touches if a reader has taken the snapshot published before it; while no
+ * one reads, back-to-back writes change the trees in place. A reader that
+ * reaches for a snapshot just as the next write retires it, unread, waits
+ * for that write to publish its own.
+ *
+ * <p>Listeners are called on the writing thread while the lock is still
+ * held, so every listener sees changes in exactly the order they were
+ * applied and positions in the events are exact. They must return quickly
+ * and must not write to the store; a Swing listener should hand the event to
+ * the EDT (see TaskChangeBus). Reads made by a listener see the store as of
+ * its change, before the write is published.
+ */
+public final class TaskStore {
+
+    /** Receives every change, in order, on the thread that made it. */
+    public interface ChangeListener {
+        void taskAdded(int index, ToDoListLogic.Task task);
+
+        void tasksAdded(List<ToDoListLogic.Task> batch);
+
+        void taskRemoved(int index, ToDoListLogic.Task task);
+
+        void statusChanged(int index, ToDoListLogic.Task task, TaskStatus previous);
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Guarded by lock
+    private final PriorityBuckets tasks = new PriorityBuckets();
+    // Secondary index: the same tasks split by status, each in visible order
+    private final PriorityBuckets[] byStatus;
+    private final TaskIdMap byId = new TaskIdMap();
+    private long nextId = 1;
+    // Bumped by every write; the version the next snapshot gets
+    private long version;
+    // Reads the buckets above directly, for the thread holding the lock
+    private final Snapshot live;
+    private volatile Snapshot published;
+    private volatile TaskChangeBus changeBus;
+
+    public TaskStore() {
+        byStatus = new PriorityBuckets[TaskStatus.values().length];
+        for (int s = 0; s < byStatus.length; s++) {
+            byStatus[s] = new PriorityBuckets();
+        }
+        live = new Snapshot(tasks, byStatus, -1);
+        published = share();
+    }
+
+    /**
+     * Registers the listener and returns the store as it is at that moment:
+     * every write already in the snapshot is left out of the listener's
+     * events and every later one is in them, so a listener that builds on
+     * the snapshot neither misses nor repeats a change.
+     */
+    public Snapshot addChangeListener(ChangeListener listener) {
+        return snapshotWith(() -> listeners.add(listener));
+    }
+
+    public void removeChangeListener(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    // The store's one TaskChangeBus, made on first use and shared by every logic and table over the store
+    public TaskChangeBus getChangeBus() {
+        TaskChangeBus bus = changeBus;
+        if (bus == null) {
+            lock.lock();
+            try {
+                bus = changeBus;
+                if (bus == null) {
+                    bus = new TaskChangeBus(this);
+                    changeBus = bus;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return bus;
+    }
+
+    // Returns the task as stored, a copy if it needed a new id but already had one
+    public ToDoListLogic.Task add(ToDoListLogic.Task task) {
+        begin();
+        try {
+            task = assignId(task, tasks.lastId(PriorityBuckets.bucketOf(task)));
+            byId.put(task);
+            int index = tasks.add(task);
+            byStatus[task.getStatus().ordinal()].add(task);
+            for (ChangeListener listener : listeners) {
+                listener.taskAdded(index, task);
+            }
+            return task;
+        } finally {
+            end();
+        }
+    }
+
+    // Tasks keep their relative order within each priority. As with add(), a task may be stored as a copy.
+    public void addAll(List<ToDoListLogic.Task> batch) {
+        List<List<ToDoListLogic.Task>> split = splitByStatus(batch);
+
+        begin();
+        try {
+            long[] lastIds = new long[PriorityBuckets.BUCKETS];
+            for (int b = 0; b < lastIds.length; b++) {
+                lastIds[b] = tasks.lastId(b);
+            }
+            byId.ensureCapacity(batch.size());
+            List<ToDoListLogic.Task> stored = batch;
+            int i = 0;
+            for (ToDoListLogic.Task task : batch) {
+                int bucket = PriorityBuckets.bucketOf(task);
+                ToDoListLogic.Task assigned = assignId(task, lastIds[bucket]);
+                if (assigned != task) {
+                    if (stored == batch) {
+                        stored = new ArrayList<>(batch);
+                    }
+                    stored.set(i, assigned);
+                }
+                lastIds[bucket] = assigned.id;
+                byId.put(assigned);
+                i++;
+            }
+            if (stored != batch) {
+                split = splitByStatus(stored);
+            }
+            tasks.addAll(stored);
+            for (int s = 0; s < byStatus.length; s++) {
+                byStatus[s].addAll(split.get(s));
+            }
+            for (ChangeListener listener : listeners) {
+                listener.tasksAdded(stored);
+            }
+        } finally {
+            end();
+        }
+    }
+
+    // Returns the removed task, or null if the index is out of range
+    public ToDoListLogic.Task remove(int index) {
+        begin();
+        try {
+            if (index < 0 || index >= tasks.size()) {
+                return null;
+            }
+            ToDoListLogic.Task task = tasks.remove(index);
+            byId.remove(task.id);
+            removed(index, task);
+            return task;
+        } finally {
+            end();
+        }
+    }
+
+    // Returns the removed task, or null if no task has this id
+    public ToDoListLogic.Task removeById(long id) {
+        begin();
+        try {
+            ToDoListLogic.Task task = byId.remove(id);
+            if (task != null) {
+                removed(tasks.remove(task), task);
+            }
+            return task;
+        } finally {
+            end();
+        }
+    }
+
+    public void setStatus(int index, TaskStatus status) {
+        begin();
+        try {
+            changeStatus(index, tasks.get(index), status);
+        } finally {
+            end();
+        }
+    }
+
+    // Returns false if no task has this id
+    public boolean setStatusById(long id, TaskStatus status) {
+        begin();
+        try {
+            ToDoListLogic.Task task = byId.get(id);
+            if (task == null) {
+                return false;
+            }
+            changeStatus(tasks.indexOf(task), task, status);
+            return true;
+        } finally {
+            end();
+        }
+    }
+
+    /**
+     * Gives every listed task the same status. The status index is updated
+     * with one merge per bucket rather than per task, so large edits stay
+     * cheap; listeners still get one statusChanged per task that changed.
+     * Unknown ids are skipped. Returns the number of tasks changed.
+     */
+    public int setStatusById(long[] ids, TaskStatus status) {
+        begin();
+        try {
+            List<ToDoListLogic.Task> targets = new ArrayList<>(ids.length);
+            for (long id : ids) {
+                ToDoListLogic.Task task = byId.get(id);
+                if (task != null) {
+                    targets.add(task);
+                }
+            }
+            return changeStatuses(targets, status);
+        } finally {
+            end();
+        }
+    }
+
+    /**
+     * Applies every edit in the batch as one write, so readers see either
+     * none or all of it. The whole batch is checked first: if any id
+     * is unknown an IllegalArgumentException is thrown and nothing changes.
+     * The work done is proportional to the batch, not the list: removals go
+     * one by one, status changes use the bulk merge of setStatusById.
+     */
+    public void applyBatch(TaskBatch batch) {
+        begin();
+        try {
+            for (long id : batch.getRemovals()) {
+                checkId(id);
+            }
+            for (long id : batch.getStatuses().keySet()) {
+                checkId(id);
+            }
+
+            for (long id : batch.getRemovals()) {
+                ToDoListLogic.Task task = byId.remove(id);
+                removed(tasks.remove(task), task);
+            }
+            Map<TaskStatus, List<ToDoListLogic.Task>> byTarget = new EnumMap<>(TaskStatus.class);
+            for (Map.Entry<Long, TaskStatus> entry : batch.getStatuses().entrySet()) {
+                ToDoListLogic.Task task = byId.get(entry.getKey());
+                if (task != null) {
+                    byTarget.computeIfAbsent(entry.getValue(), s -> new ArrayList<>()).add(task);
+                }
+            }
+            for (Map.Entry<TaskStatus, List<ToDoListLogic.Task>> entry : byTarget.entrySet()) {
+                changeStatuses(entry.getValue(), entry.getKey());
+            }
+        } finally {
+            end();
+        }
+    }
+
+    public ToDoListLogic.Task getById(long id) {
+        return lock.isHeldByCurrentThread() ? byId.get(id) : current().getById(id);
+    }
+
+    // Visible position of the task with this id, or -1
+    public int indexOf(long id) {
+        return view().indexOf(id);
+    }
+
+    public int size() {
+        return view().size();
+    }
+
+    public int size(TaskStatus status) {
+        return view().size(status);
+    }
+
+    public ToDoListLogic.Task get(int index) {
+        return view().get(index);
+    }
+
+    public ToDoListLogic.Task get(TaskStatus status, int index) {
+        return view().get(status, index);
+    }
+
+    // Like get, but null instead of an exception when another thread has just shrunk the list
+    public ToDoListLogic.Task find(TaskStatus status, int index) {
+        return view().find(status, index);
+    }
+
+    /**
+     * All tasks in visible order as they are now. Taking one costs the same
+     * however many tasks there are, and it never changes afterwards, so it
+     * can be iterated, saved or indexed at leisure while writes go on. On a
+     * thread inside a write, such as a listener, it includes the changes
+     * made so far.
+     */
+    public Snapshot snapshot() {
+        return lock.isHeldByCurrentThread() ? freeze() : current();
+    }
+
+    /**
+     * The store's tasks as of one write. Tasks never change once stored (a
+     * status change stores a new Task with the same id), so a snapshot keeps
+     * every task as it was, and is read without locks.
+     */
+    public static final class Snapshot extends AbstractList<ToDoListLogic.Task> implements RandomAccess {
+        // A published snapshot is open until a reader takes it or the next write retires it, whichever is first
+        private static final int OPEN = 0;
+        private static final int TAKEN = 1;
+        private static final int RETIRED = 2;
+
+        private final PriorityBuckets tasks;
+        private final PriorityBuckets[] byStatus;
+        // The write this snapshot ends with; see TaskChangeBus
+        final long version;
+        private final AtomicInteger state = new AtomicInteger(OPEN);
+
+        Snapshot(PriorityBuckets tasks, PriorityBuckets[] byStatus, long version) {
+            this.tasks = tasks;
+            this.byStatus = byStatus;
+            this.version = version;
+        }
+
+        @Override
+        public ToDoListLogic.Task get(int index) {
+            return tasks.get(index);
+        }
+
+        @Override
+        public int size() {
+            return tasks.size();
+        }
+
+        public int size(TaskStatus status) {
+            return byStatus[status.ordinal()].size();
+        }
+
+        public ToDoListLogic.Task get(TaskStatus status, int index) {
+            return byStatus[status.ordinal()].get(index);
+        }
+
+        // Null for a position past the end; null status for all tasks
+        public ToDoListLogic.Task find(TaskStatus status, int index) {
+            PriorityBuckets buckets = status == null ? tasks : byStatus[status.ordinal()];
+            return index >= 0 && index < buckets.size() ? buckets.get(index) : null;
+        }
+
+        public ToDoListLogic.Task getById(long id) {
+            return tasks.find(id);
+        }
+
+        public int indexOf(long id) {
+            return tasks.indexOf(id);
+        }
+
+        // True if a reader now holds the snapshot, so the next write leaves it alone; false once it is retired
+        private boolean take() {
+            return state.get() == TAKEN || state.compareAndSet(OPEN, TAKEN) || state.get() == TAKEN;
+        }
+
+        // True if no reader took the snapshot, which the next write may then change in place
+        private boolean retire() {
+            return state.compareAndSet(OPEN, RETIRED);
+        }
+
+        // Walks the tree leaves rather than looking up each position
+        @Override
+        public Iterator<ToDoListLogic.Task> iterator() {
+            List<TaskTree.Node> leaves = tasks.leaves();
+            return new Iterator<ToDoListLogic.Task>() {
+                private int leaf;
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    return leaf < leaves.size();
+                }
+
+                @Override
+                public ToDoListLogic.Task next() {
+                    if (leaf == leaves.size()) {
+                        throw new NoSuchElementException();
+                    }
+                    TaskTree.Node node = leaves.get(leaf);
+                    ToDoListLogic.Task task = node.tasks[next++];
+                    if (next == node.count) {
+                        leaf++;
+                        next = 0;
+                    }
+                    return task;
+                }
+            };
+        }
+
+        @Override
+        public Object[] toArray() {
+            ToDoListLogic.Task[] array = new ToDoListLogic.Task[tasks.size()];
+            tasks.copyTo(array);
+            return array;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T[] toArray(T[] a) {
+            Object[] all = toArray();
+            if (a.length < all.length) {
+                return (T[]) Arrays.copyOf(all, all.length, a.getClass());
+            }
+            System.arraycopy(all, 0, a, 0, all.length);
+            if (a.length > all.length) {
+                a[all.length] = null;
+            }
+            return a;
+        }
+    }
+
+    // Runs the action between two writes and returns the snapshot it falls after; for registering something that
+    // must see exactly the writes that snapshot does not hold
+    Snapshot snapshotWith(Runnable action) {
+        lock.lock();
+        try {
+            action.run();
+            return freeze();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // What a read sees: the last published snapshot, or for the writing thread everything it has done so far
+    private Snapshot view() {
+        return lock.isHeldByCurrentThread() ? live : current();
+    }
+
+    // The latest published snapshot, taken so that no later write changes it
+    private Snapshot current() {
+        Snapshot snapshot = published;
+        if (snapshot.take()) {
+            return snapshot;
+        }
+        // Retired unread: the write in progress is changing its nodes, so wait for the one it publishes
+        lock.lock();
+        try {
+            snapshot = published;
+            snapshot.take(); // Cannot fail: only a write retires a snapshot, and it publishes another first
+            return snapshot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called with the lock held; the snapshot is valid until the next write unless it is taken or sealed first
+    private Snapshot share() {
+        PriorityBuckets[] statuses = new PriorityBuckets[byStatus.length];
+        for (int s = 0; s < statuses.length; s++) {
+            statuses[s] = byStatus[s].share();
+        }
+        return new Snapshot(tasks.share(), statuses, version);
+    }
+
+    // Called with the lock held; a snapshot no write will change
+    private Snapshot freeze() {
+        Snapshot snapshot = share();
+        seal();
+        snapshot.take();
+        return snapshot;
+    }
+
+    private void seal() {
+        tasks.seal();
+        for (PriorityBuckets buckets : byStatus) {
+            buckets.seal();
+        }
+    }
+
+    // Every write runs between begin() and end(), which publishes what it did
+    private void begin() {
+        lock.lock();
+        version++;
+        if (!published.retire()) {
+            seal(); // A reader has the last snapshot, so this write must leave its nodes alone
+        }
+    }
+
+    private void end() {
+        try {
+            published = share();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The version the write in progress will be published as; for listeners
+    long writeVersion() {
+        return version;
+    }
+
+    // The version of the latest published snapshot
+    long publishedVersion() {
+        return published.version;
+    }
+
+    // A task keeps an id it already has (read back from a snapshot or the journal) if no stored task uses it
+    // and it sorts after the last task of its bucket, since buckets are searched by id; otherwise it gets the
+    // next free one. Returns the id it ends up with.
+    // The task as it is to be stored. It keeps its id if that is free and after the last in its bucket, else gets
+    // the next one. A task with an id may be stored already, here or in another store, so the new id goes on a copy.
+    private ToDoListLogic.Task assignId(ToDoListLogic.Task task, long lastInBucket) {
+        if (task.id <= lastInBucket || byId.containsKey(task.id)) {
+            if (task.id != 0) {
+                task = new ToDoListLogic.Task(nextId, task.getName(), task.getPriorityValue(), task.getStatus());
+            } else {
+                task.id = nextId;
+            }
+        }
+        nextId = Math.max(nextId, task.id + 1);
+        return task;
+    }
+
+    private List<List<ToDoListLogic.Task>> splitByStatus(List<ToDoListLogic.Task> batch) {
+        List<List<ToDoListLogic.Task>> split = new ArrayList<>(byStatus.length);
+        for (int s = 0; s < byStatus.length; s++) {
+            split.add(new ArrayList<>());
+        }
+        for (ToDoListLogic.Task task : batch) {
+            split.get(task.getStatus().ordinal()).add(task);
+        }
+        return split;
+    }
+
+    private void checkId(long id) {
+        if (byId.get(id) == null) {
+            throw new IllegalArgumentException("No task with id " + id);
+        }
+    }
+
+    // Bulk status change: each task is replaced by a copy with the new status, then one removeAll per old status
+    // and one insertAll update the status index, then an event per changed task
+    private int changeStatuses(List<ToDoListLogic.Task> targets, TaskStatus status) {
+        List<ToDoListLogic.Task> changed = new ArrayList<>();
+        List<List<ToDoListLogic.Task>> byPrevious = new ArrayList<>(byStatus.length);
+        for (int s = 0; s < byStatus.length; s++) {
+            byPrevious.add(new ArrayList<>());
+        }
+        for (ToDoListLogic.Task task : targets) {
+            // A repeated id finds its task already replaced
+            if (task.getStatus() != status && byId.get(task.id) == task) {
+                ToDoListLogic.Task replacement = task.withStatus(status);
+                byId.put(replacement);
+                tasks.replace(replacement);
+                byPrevious.get(task.getStatus().ordinal()).add(task);
+                changed.add(replacement);
+            }
+        }
+        for (int s = 0; s < byStatus.length; s++) {
+            byStatus[s].removeAll(byPrevious.get(s));
+        }
+        byStatus[status.ordinal()].insertAll(changed);
+
+        TaskStatus[] statuses = TaskStatus.values();
+        for (int s = 0; s < byStatus.length; s++) {
+            TaskStatus previous = statuses[s];
+            for (ToDoListLogic.Task task : byPrevious.get(s)) {
+                ToDoListLogic.Task replacement = byId.get(task.id);
+                int index = tasks.indexOf(replacement);
+                for (ChangeListener listener : listeners) {
+                    listener.statusChanged(index, replacement, previous);
+                }
+            }
+        }
+        return changed.size();
+    }
+
+    private void removed(int index, ToDoListLogic.Task task) {
+        byStatus[task.getStatus().ordinal()].remove(task);
+        for (ChangeListener listener : listeners) {
+            listener.taskRemoved(index, task);
+        }
+    }
+
+    private void changeStatus(int index, ToDoListLogic.Task task, TaskStatus status) {
+        TaskStatus previous = task.getStatus();
+        if (previous != status) {
+            ToDoListLogic.Task replacement = task.withStatus(status);
+            byId.put(replacement);
+            tasks.replace(replacement);
+            byStatus[previous.ordinal()].remove(task);
+            byStatus[status.ordinal()].insert(replacement);
+            for (ChangeListener listener : listeners) {
+                listener.statusChanged(index, replacement, previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package eg;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.List;
+
+/**
+ * Table model that reads rows straight from the TaskStore instead of copying
+ * them, and turns store changes into matching row events so a single add or
+ * status change repaints one row.
+ *
+ * <p>Changes may come from any thread. They arrive through the logic's
+ * TaskChangeBus, on the EDT and a frame's worth at a time; a frame with many
+ * changes, such as a bulk edit, repaints the table once. The row count the
+ * table sees only moves when the matching event is fired.
+ *
+ * <p>A model created with a status shows the store's tasks with that status
+ * and refreshes only when a change touches that status. A model created
+ * over a plain list, such as a PagedTaskList, just shows that list.
+ */
+public class TaskTableModel extends AbstractTableModel implements TaskChangeBus.Subscriber {
+
+    static final String[] COLUMNS = {"Task Name", "Priority", "Status"};
+    // A flush with more changes than this repaints the table once instead of firing an event per row
+    private static final int ROW_EVENTS_MAX = 64;
+
+    // null for a model over a fixed list
+    private final TaskStore store;
+    private final TaskChangeBus bus;
+    // null for the model of all tasks
+    private final TaskStatus filter;
+    // null unless the model is over a fixed list
+    private final List<ToDoListLogic.Task> rows;
+    // Only touched on the EDT
+    private int rowCount;
+
+    public TaskTableModel(ToDoListLogic logic) {
+        this(logic, null);
+    }
+
+    public TaskTableModel(ToDoListLogic logic, TaskStatus filter) {
+        this.store = logic.getStore();
+        this.bus = logic.getChangeBus();
+        this.filter = filter;
+        this.rows = null;
+        TaskStore.Snapshot start = bus.subscribe(this);
+        rowCount = filter == null ? start.size() : start.size(filter);
+    }
+
+    // Read-only model over a list that does not change
+    public TaskTableModel(List<ToDoListLogic.Task> rows) {
+        this.store = null;
+        this.bus = null;
+        this.filter = null;
+        this.rows = rows;
+        rowCount = rows.size();
+    }
+
+    // Stops following the store; call when the table showing this model goes away
+    public void detach() {
+        if (bus != null) {
+            bus.unsubscribe(this);
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        ToDoListLogic.Task task = rows != null ? rows.get(row) : store.find(filter, row);
+        if (task == null) {
+            return null; // Removed by another thread; the delete event is on its way
+        }
+        switch (column) {
+            case 0:
+                return task.getName();
+            case 1:
+                return task.getPriority();
+            default:
+                return task.getStatus();
+        }
+    }
+
+    @Override
+    public void changed(List<TaskChange> changes) {
+        if (filter != null) {
+            // Filtered rows are not at the store positions the changes carry, so any change to them is a refresh
+            for (TaskChange change : changes) {
+                if (change.touches(filter)) {
+                    refreshAll();
+                    return;
+                }
+            }
+            return;
+        }
+        if (changes.size() > ROW_EVENTS_MAX) {
+            rowCount = changes.get(changes.size() - 1).getSize();
+            fireTableDataChanged();
+            return;
+        }
+        for (TaskChange change : changes) {
+            int index = change.getIndex();
+            int size = change.getSize();
+            switch (change.getType()) {
+                case ADDED:
+                    if (size == rowCount + 1) {
+                        rowCount = size;
+                        fireTableRowsInserted(index, index);
+                        continue;
+                    }
+                    break;
+                case REMOVED:
+                    if (size == rowCount - 1) {
+                        rowCount = size;
+                        fireTableRowsDeleted(index, index);
+                        continue;
+                    }
+                    break;
+                case STATUS_CHANGED:
+                    if (size == rowCount) {
+                        fireTableRowsUpdated(index, index);
+                        continue;
+                    }
+                    break;
+                default:
+                    // A batch lands in several priority buckets at once, so the rows are not contiguous
+                    break;
+            }
+            // Out of step with the row count, as after subscribing while the store was changing: start over
+            rowCount = size;
+            fireTableDataChanged();
+        }
+    }
+
+    @Override
+    public void refreshAll() {
+        rowCount = size();
+        fireTableDataChanged();
+    }
+
+    private int size() {
+        return filter == null ? store.size() : store.size(filter);
+    }
+}
@@ -0,0 +1,399 @@
+package eg;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Persistent B+tree of tasks in ascending id order, used for the buckets of
+ * PriorityBuckets. Inner nodes keep the number of tasks under each child,
+ * so a task is found by position as well as by id in a few levels.
+ *
+ * <p>Trees share nodes. Every node remembers the edit that created it, and
+ * a write made under another edit copies each node on its path before
+ * changing it, leaving the original to whatever version still refers to
+ * it. Within one edit, writes change the nodes they have already copied in
+ * place, so a bulk change costs about what it would on a mutable tree.
+ * Nodes are never changed once their edit is over, which is what lets a
+ * frozen PriorityBuckets be read without a lock.
+ *
+ * <p>Appends, the common case, fill leaves completely. A node left with
+ * few tasks by removals is merged into a neighbour when both fit in one.
+ */
+final class TaskTree {
+
+    static final int LEAF = 64;
+    static final int INNER = 32;
+    private static final int LEAF_MIN = LEAF / 4;
+    private static final int INNER_MIN = INNER / 4;
+
+    // Never changed in place: no edit owns it
+    static final Node EMPTY = new Node(null, true);
+
+    static final class Node {
+        // The edit that may still change this node in place
+        final Object edit;
+        int count;
+        // Leaf: the tasks, ascending by id
+        final ToDoListLogic.Task[] tasks;
+        // Inner: the children; every id under children[i] is at least keys[i], which for i = 0 is the node's
+        // own lower bound, its key in its parent
+        final Node[] children;
+        final long[] keys;
+        final int[] sizes;
+
+        Node(Object edit, boolean leaf) {
+            this.edit = edit;
+            tasks = leaf ? new ToDoListLogic.Task[LEAF] : null;
+            children = leaf ? null : new Node[INNER];
+            keys = leaf ? null : new long[INNER];
+            sizes = leaf ? null : new int[INNER];
+        }
+
+        private Node(Node from, Object edit) {
+            this.edit = edit;
+            count = from.count;
+            tasks = from.tasks == null ? null : from.tasks.clone();
+            children = from.children == null ? null : from.children.clone();
+            keys = from.keys == null ? null : from.keys.clone();
+            sizes = from.sizes == null ? null : from.sizes.clone();
+        }
+
+        boolean isLeaf() {
+            return tasks != null;
+        }
+    }
+
+    private TaskTree() {
+    }
+
+    static ToDoListLogic.Task get(Node node, int index) {
+        while (!node.isLeaf()) {
+            int i = 0;
+            while (index >= node.sizes[i]) {
+                index -= node.sizes[i++];
+            }
+            node = node.children[i];
+        }
+        return node.tasks[index];
+    }
+
+    // Position of the task with this id, or -1
+    static int indexOf(Node node, long id) {
+        int offset = 0;
+        while (!node.isLeaf()) {
+            int child = childFor(node, id);
+            for (int i = 0; i < child; i++) {
+                offset += node.sizes[i];
+            }
+            node = node.children[child];
+        }
+        int pos = search(node, id);
+        return pos < 0 ? -1 : offset + pos;
+    }
+
+    static ToDoListLogic.Task find(Node node, long id) {
+        while (!node.isLeaf()) {
+            node = node.children[childFor(node, id)];
+        }
+        int pos = search(node, id);
+        return pos < 0 ? null : node.tasks[pos];
+    }
+
+    // Id of the last task, or 0 if there is none
+    static long lastId(Node node) {
+        while (!node.isLeaf()) {
+            int i = node.count - 1;
+            while (i > 0 && node.sizes[i] == 0) {
+                i--;
+            }
+            node = node.children[i];
+        }
+        return node.count == 0 ? 0 : node.tasks[node.count - 1].id;
+    }
+
+    // Inserts the task at its id position; returns the new root
+    static Node insert(Node root, ToDoListLogic.Task task, Object edit) {
+        root = editable(root, edit);
+        Node split = insert(root, task, edit, true);
+        return split == null ? root : grow(root, split, edit);
+    }
+
+    // Removes the task at the position; returns the new root
+    static Node remove(Node root, int index, Object edit) {
+        root = editable(root, edit);
+        removeFrom(root, index, edit);
+        while (!root.isLeaf() && root.count == 1) {
+            root = root.children[0];
+        }
+        return root;
+    }
+
+    // Puts the task in place of the one at the position, which must have the same id; returns the new root
+    static Node set(Node root, int index, ToDoListLogic.Task task, Object edit) {
+        root = editable(root, edit);
+        Node node = root;
+        while (!node.isLeaf()) {
+            int i = 0;
+            while (index >= node.sizes[i]) {
+                index -= node.sizes[i++];
+            }
+            node = node.children[i] = editable(node.children[i], edit);
+        }
+        node.tasks[index] = task;
+        return root;
+    }
+
+    // A tree of the tasks from..to of an array sorted by id, with every node full but the last of each level
+    static Node build(ToDoListLogic.Task[] sorted, int from, int to, Object edit) {
+        if (from == to) {
+            return EMPTY;
+        }
+        int leaves = (to - from + LEAF - 1) / LEAF;
+        Node[] level = new Node[leaves];
+        for (int l = 0; l < leaves; l++) {
+            Node leaf = new Node(edit, true);
+            leaf.count = Math.min(LEAF, to - from - l * LEAF);
+            System.arraycopy(sorted, from + l * LEAF, leaf.tasks, 0, leaf.count);
+            level[l] = leaf;
+        }
+        while (level.length > 1) {
+            Node[] parents = new Node[(level.length + INNER - 1) / INNER];
+            for (int p = 0; p < parents.length; p++) {
+                Node parent = new Node(edit, false);
+                for (int c = p * INNER; c < Math.min(level.length, (p + 1) * INNER); c++) {
+                    parent.children[parent.count] = level[c];
+                    parent.keys[parent.count] = lowerBound(level[c]);
+                    parent.sizes[parent.count] = size(level[c]);
+                    parent.count++;
+                }
+                parents[p] = parent;
+            }
+            level = parents;
+        }
+        return level[0];
+    }
+
+    // Copies the tasks into the array from the position on, in order; returns the position after the last
+    static int copyTo(Node node, ToDoListLogic.Task[] into, int at) {
+        if (node.isLeaf()) {
+            System.arraycopy(node.tasks, 0, into, at, node.count);
+            return at + node.count;
+        }
+        for (int i = 0; i < node.count; i++) {
+            at = copyTo(node.children[i], into, at);
+        }
+        return at;
+    }
+
+    // Adds the leaves holding tasks to the list, in order
+    static void leaves(Node node, List<Node> into) {
+        if (node.isLeaf()) {
+            if (node.count > 0) {
+                into.add(node);
+            }
+            return;
+        }
+        for (int i = 0; i < node.count; i++) {
+            leaves(node.children[i], into);
+        }
+    }
+
+    static int size(Node node) {
+        if (node.isLeaf()) {
+            return node.count;
+        }
+        int size = 0;
+        for (int i = 0; i < node.count; i++) {
+            size += node.sizes[i];
+        }
+        return size;
+    }
+
+    private static Node editable(Node node, Object edit) {
+        return node.edit == edit ? node : new Node(node, edit);
+    }
+
+    // A new root over the old one and the node split off it
+    private static Node grow(Node root, Node split, Object edit) {
+        Node parent = new Node(edit, false);
+        parent.children[0] = root;
+        parent.keys[0] = lowerBound(root);
+        parent.sizes[0] = size(root);
+        parent.children[1] = split;
+        parent.keys[1] = lowerBound(split);
+        parent.sizes[1] = size(split);
+        parent.count = 2;
+        return parent;
+    }
+
+    // Inserts into an editable node; returns the node split off to its right if it overflowed, else null.
+    // last is true for the nodes along the right edge, where a task at the end is an append.
+    private static Node insert(Node node, ToDoListLogic.Task task, Object edit, boolean last) {
+        if (node.isLeaf()) {
+            int pos = search(node, task.id);
+            if (pos < 0) {
+                pos = -pos - 1;
+            }
+            if (node.count < LEAF) {
+                insertAt(node.tasks, node.count, pos, task);
+                node.count++;
+                return null;
+            }
+            Node right = new Node(edit, true);
+            if (pos == LEAF && last) {
+                // Appended to the last leaf: keep it full and start the next one
+                right.tasks[0] = task;
+                right.count = 1;
+                return right;
+            }
+            int half = LEAF / 2;
+            System.arraycopy(node.tasks, half, right.tasks, 0, LEAF - half);
+            Arrays.fill(node.tasks, half, LEAF, null);
+            node.count = half;
+            right.count = LEAF - half;
+            if (pos <= half) {
+                insertAt(node.tasks, node.count++, pos, task);
+            } else {
+                insertAt(right.tasks, right.count++, pos - half, task);
+            }
+            return right;
+        }
+
+        int i = childFor(node, task.id);
+        Node child = node.children[i] = editable(node.children[i], edit);
+        node.sizes[i]++;
+        Node split = insert(child, task, edit, last && i + 1 == node.count);
+        if (split == null) {
+            return null;
+        }
+        int moved = size(split);
+        node.sizes[i] -= moved;
+        if (node.count < INNER) {
+            insertChild(node, i + 1, split, moved);
+            return null;
+        }
+        Node right = new Node(edit, false);
+        if (i + 1 == INNER && last) {
+            right.children[0] = split;
+            right.keys[0] = lowerBound(split);
+            right.sizes[0] = moved;
+            right.count = 1;
+            return right;
+        }
+        int half = INNER / 2;
+        System.arraycopy(node.children, half, right.children, 0, INNER - half);
+        System.arraycopy(node.keys, half, right.keys, 0, INNER - half);
+        System.arraycopy(node.sizes, half, right.sizes, 0, INNER - half);
+        Arrays.fill(node.children, half, INNER, null);
+        node.count = half;
+        right.count = INNER - half;
+        if (i + 1 <= half) {
+            insertChild(node, i + 1, split, moved);
+        } else {
+            insertChild(right, i + 1 - half, split, moved);
+        }
+        return right;
+    }
+
+    private static void insertChild(Node node, int at, Node child, int size) {
+        int tail = node.count - at;
+        System.arraycopy(node.children, at, node.children, at + 1, tail);
+        System.arraycopy(node.keys, at, node.keys, at + 1, tail);
+        System.arraycopy(node.sizes, at, node.sizes, at + 1, tail);
+        node.children[at] = child;
+        node.keys[at] = lowerBound(child);
+        node.sizes[at] = size;
+        node.count++;
+    }
+
+    private static void insertAt(ToDoListLogic.Task[] tasks, int count, int pos, ToDoListLogic.Task task) {
+        System.arraycopy(tasks, pos, tasks, pos + 1, count - pos);
+        tasks[pos] = task;
+    }
+
+    // Removes from an editable node, merging a child that runs low into a neighbour
+    private static void removeFrom(Node node, int index, Object edit) {
+        if (node.isLeaf()) {
+            System.arraycopy(node.tasks, index + 1, node.tasks, index, node.count - index - 1);
+            node.tasks[--node.count] = null;
+            return;
+        }
+        int i = 0;
+        while (index >= node.sizes[i]) {
+            index -= node.sizes[i++];
+        }
+        Node child = node.children[i] = editable(node.children[i], edit);
+        node.sizes[i]--;
+        removeFrom(child, index, edit);
+        if (child.count < (child.isLeaf() ? LEAF_MIN : INNER_MIN) && node.count > 1) {
+            merge(node, i > 0 ? i - 1 : i, edit);
+        }
+    }
+
+    // Moves the children or tasks of child at + 1 onto the end of child at, if they fit
+    private static void merge(Node node, int at, Object edit) {
+        Node left = node.children[at];
+        Node right = node.children[at + 1];
+        if (left.count + right.count > (left.isLeaf() ? LEAF : INNER)) {
+            return;
+        }
+        left = node.children[at] = editable(left, edit);
+        if (left.isLeaf()) {
+            System.arraycopy(right.tasks, 0, left.tasks, left.count, right.count);
+        } else {
+            System.arraycopy(right.children, 0, left.children, left.count, right.count);
+            System.arraycopy(right.keys, 0, left.keys, left.count, right.count);
+            System.arraycopy(right.sizes, 0, left.sizes, left.count, right.count);
+            // The right node's own bound is kept as the key of its first child
+            left.keys[left.count] = node.keys[at + 1];
+        }
+        left.count += right.count;
+        node.sizes[at] += node.sizes[at + 1];
+        int tail = node.count - at - 2;
+        System.arraycopy(node.children, at + 2, node.children, at + 1, tail);
+        System.arraycopy(node.keys, at + 2, node.keys, at + 1, tail);
+        System.arraycopy(node.sizes, at + 2, node.sizes, at + 1, tail);
+        node.count--;
+        node.children[node.count] = null;
+    }
+
+    // Last child whose key is not above the id
+    private static int childFor(Node node, long id) {
+        int low = 1;
+        int high = node.count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (node.keys[mid] <= id) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low - 1;
+    }
+
+    private static long lowerBound(Node node) {
+        if (node.isLeaf()) {
+            return node.count == 0 ? 0 : node.tasks[0].id;
+        }
+        return node.keys[0];
+    }
+
+    // Binary search by id within a leaf, same contract as Collections.binarySearch
+    private static int search(Node leaf, long id) {
+        int low = 0;
+        int high = leaf.count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = leaf.tasks[mid].id;
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+}
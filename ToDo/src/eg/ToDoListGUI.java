@@ -4,108 +4,510 @@ import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import javax.swing.table.TableColumn;
 
 public class ToDoListGUI extends JFrame {
 
+    // Tasks handed to the store at a time while loading; each batch is one table refresh
+    private static final int LOAD_BATCH = 50_000;
+    // Search results shown in the main table at most
+    private static final int SEARCH_LIMIT = 1000;
+    // A tasks.txt larger than this is opened read-only through a PagedTaskList instead of loaded (-Dtodo.pagedThreshold)
+    private static final long PAGED_THRESHOLD = Long.getLong("todo.pagedThreshold", 256L * 1024 * 1024);
+    // Heap the PagedTaskList may spend on parsed pages (-Dtodo.pageCacheBytes)
+    private static final long PAGE_CACHE_BYTES = Long.getLong("todo.pageCacheBytes", 64L * 1024 * 1024);
+    // Choices of the Sort by box; the first is the store's own order and shows the live list
+    private static final Map<String, TaskOrder> SORT_ORDERS = new LinkedHashMap<>();
+    // Whole load job, file to open journal, and the journal flush and close on exit
+    private static final TaskMetrics.Latency LOAD = TaskMetrics.latency("tasks.load");
+    private static final TaskMetrics.Latency SAVE = TaskMetrics.latency("tasks.save");
+    // Building the Executed or Non-Executed table, before the dialog shows it
+    private static final TaskMetrics.Latency FILTERED_VIEW = TaskMetrics.latency("ui.filteredView");
+
+    static {
+        SORT_ORDERS.put("Priority", TaskOrder.PRIORITY);
+        SORT_ORDERS.put("Status, then priority", TaskOrder.by(TaskOrder.Key.STATUS).then(TaskOrder.Key.PRIORITY));
+        SORT_ORDERS.put("Name", TaskOrder.by(TaskOrder.Key.NAME));
+        SORT_ORDERS.put("Newest first", TaskOrder.byDescending(TaskOrder.Key.CREATED));
+        SORT_ORDERS.put("Oldest first", TaskOrder.by(TaskOrder.Key.CREATED));
+    }
+
     private final ToDoListLogic logic;
-    private final DefaultTableModel tableModel;
+    private final JTable mainTable;
+    private final TaskTableModel mainTableModel;
+    private final JTextField searchField;
+    private final JLabel searchResultLabel;
+    private final JComboBox<String> sortBox;
+    private final JButton addTaskButton;
+    private final JButton editTaskButton;
+    private final JButton executedTasksButton;
+    private final JButton nonExecutedTasksButton;
+    private final JButton importButton;
+    private final JButton exportButton;
+    private final JProgressBar loadProgress;
+    private final JPanel progressPanel;
+    private final JButton cancelLoadButton;
+    private final TaskIoExecutor io = new TaskIoExecutor();
+    private TaskIoExecutor.Job loadJob;
+    // Set on the I/O thread once loading has finished; every change after that is appended to tasks.journal
+    private volatile TaskJournal journal;
+    // Built on the I/O thread after loading, then kept up to date by the store
+    private volatile TaskSearchIndex searchIndex;
+    // Set on the I/O thread instead of loading when tasks.txt is too large for the heap
+    private volatile PagedTaskList pagedTasks;
+    // The main table's rows in the order picked in the Sort by box, kept up to date by the store; null for the store's own order
+    private SortedTaskTableModel sortedModel;
+    // Bumped by every sort request, so a slow sort finishing after a newer one is dropped
+    private int sortGeneration;
+    private boolean closing;
 
     public ToDoListGUI() {
         super("To-Do List Manager");
-        setDefaultCloseOperation(EXIT_ON_CLOSE);
+        // Exits once the journal has been flushed off the EDT, see saveAndExit()
+        setDefaultCloseOperation(DO_NOTHING_ON_CLOSE);
         setLayout(new BorderLayout());
 
         logic = new ToDoListLogic();
 
-        // Load tasks from file when the application starts
-        loadTasksFromFile();
-
-        // Main Table
-        String[] columns = {"Task Name", "Priority", "Status"};
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Make all cells non-editable
-            }
-        };
-        JTable mainTable = new JTable(tableModel);
+        // Main Table; fills in batch by batch while the tasks load
+        mainTableModel = new TaskTableModel(logic);
+        mainTable = new JTable(mainTableModel);
         JScrollPane scrollPane = new JScrollPane(mainTable);
 
         // Buttons Panel
         JPanel buttonPanel = new JPanel();
-        JButton addTaskButton = new JButton("Add Task");
-        JButton editTaskButton = new JButton("Edit Task");
-        JButton executedTasksButton = new JButton("Executed Tasks");
-        JButton nonExecutedTasksButton = new JButton("Non-Executed Tasks");
+        addTaskButton = new JButton("Add Task");
+        editTaskButton = new JButton("Edit Task");
+        executedTasksButton = new JButton("Executed Tasks");
+        nonExecutedTasksButton = new JButton("Non-Executed Tasks");
+        importButton = new JButton("Import...");
+        exportButton = new JButton("Export...");
 
         buttonPanel.add(addTaskButton);
         buttonPanel.add(editTaskButton);
         buttonPanel.add(executedTasksButton);
         buttonPanel.add(nonExecutedTasksButton);
-
+        buttonPanel.add(importButton);
+        buttonPanel.add(exportButton);
+
+        loadProgress = new JProgressBar(0, 100);
+        loadProgress.setStringPainted(true);
+        loadProgress.setString("Loading tasks...");
+        cancelLoadButton = new JButton("Cancel");
+        progressPanel = new JPanel(new BorderLayout());
+        progressPanel.add(loadProgress, BorderLayout.CENTER);
+        progressPanel.add(cancelLoadButton, BorderLayout.EAST);
+        progressPanel.setVisible(false);
+
+        // Search Panel; while it holds a query the main table shows the matches instead of every task
+        searchField = new JTextField();
+        searchField.setEnabled(false);
+        searchResultLabel = new JLabel();
+        JPanel searchPanel = new JPanel(new BorderLayout(5, 0));
+        searchPanel.add(new JLabel("Search:"), BorderLayout.WEST);
+        searchPanel.add(searchField, BorderLayout.CENTER);
+        sortBox = new JComboBox<>(SORT_ORDERS.keySet().toArray(new String[0]));
+        sortBox.setEnabled(false);
+        JPanel resultPanel = new JPanel(new BorderLayout(5, 0));
+        resultPanel.add(searchResultLabel, BorderLayout.WEST);
+        resultPanel.add(new JLabel("Sort by:"), BorderLayout.CENTER);
+        resultPanel.add(sortBox, BorderLayout.EAST);
+        searchPanel.add(resultPanel, BorderLayout.EAST);
+
+        JPanel topPanel = new JPanel(new BorderLayout());
+        topPanel.add(searchPanel, BorderLayout.NORTH);
+        topPanel.add(progressPanel, BorderLayout.SOUTH);
+
+        add(topPanel, BorderLayout.NORTH);
         add(scrollPane, BorderLayout.CENTER);
         add(buttonPanel, BorderLayout.SOUTH);
 
         // Button Actions
         addTaskButton.addActionListener(e -> openAddTaskDialog());
         editTaskButton.addActionListener(e -> openEditTaskDialog());
-        executedTasksButton.addActionListener(e -> showFilteredTasks("✔", "Executed Tasks"));
-        nonExecutedTasksButton.addActionListener(e -> showFilteredTasks("✖", "Non-Executed Tasks"));
+        executedTasksButton.addActionListener(e -> showFilteredTasks(TaskStatus.DONE, "Executed Tasks"));
+        nonExecutedTasksButton.addActionListener(e -> showFilteredTasks(TaskStatus.NOT_DONE, "Non-Executed Tasks"));
+        importButton.addActionListener(e -> importTasks());
+        exportButton.addActionListener(e -> exportTasks());
+
+        cancelLoadButton.addActionListener(e -> loadJob.cancel());
+
+        // Search shortly after the user stops typing rather than on every key
+        javax.swing.Timer searchTimer = new javax.swing.Timer(150, e -> searchTasks());
+        searchTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            @Override
+            public void insertUpdate(javax.swing.event.DocumentEvent e) {
+                searchTimer.restart();
+            }
+
+            @Override
+            public void removeUpdate(javax.swing.event.DocumentEvent e) {
+                searchTimer.restart();
+            }
+
+            @Override
+            public void changedUpdate(javax.swing.event.DocumentEvent e) {
+                searchTimer.restart();
+            }
+        });
+
+        sortBox.addActionListener(e -> sortTasks());
 
-        // Window listener to save tasks on exit
+        // Window listener to flush the journal on exit; changes are already saved as they happen
         addWindowListener(new java.awt.event.WindowAdapter() {
             @Override
             public void windowClosing(java.awt.event.WindowEvent windowEvent) {
-                saveTasksToFile(); // Save tasks when window is closing
+                saveAndExit();
             }
         });
 
-        // Update the table with tasks immediately
-        updateMainTable();
-
         setSize(600, 400);
         setVisible(true);
+
+        // Load tasks from file on the I/O thread; the table fills in as batches arrive
+        loadTasksFromFile();
     }
 
-    private void saveTasksToFile() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter("tasks.txt"))) {
-            for (ToDoListLogic.Task task : logic.getTasks()) {
-                writer.write(task.getName() + "," + task.getPriority() + "," + task.getStatus());
-                writer.newLine();
-            }
-        } catch (IOException e) {
-            JOptionPane.showMessageDialog(this, "Error saving tasks to file.", "Error", JOptionPane.ERROR_MESSAGE);
+    // Flushes and closes the journal on the I/O thread, behind any load still queued there, then exits
+    private void saveAndExit() {
+        if (closing) {
+            return;
+        }
+        closing = true;
+        if (loadJob != null) {
+            loadJob.cancel();
         }
+        setTaskButtonsEnabled(false);
+        cancelLoadButton.setVisible(false);
+        loadProgress.setIndeterminate(true);
+        loadProgress.setString("Saving tasks...");
+        progressPanel.setVisible(true);
+
+        io.submit(job -> {
+            long start = TaskMetrics.now();
+            if (journal != null) {
+                journal.close();
+            }
+            if (pagedTasks != null) {
+                pagedTasks.close();
+            }
+            SAVE.record(start);
+            return null;
+        }, p -> { }, new TaskIoExecutor.Callback<Object>() {
+            @Override
+            public void done(Object result) {
+                exit();
+            }
+
+            @Override
+            public void failed(Exception e) {
+                JOptionPane.showMessageDialog(ToDoListGUI.this, "Error saving tasks to file.", "Error", JOptionPane.ERROR_MESSAGE);
+                exit();
+            }
+
+            @Override
+            public void cancelled() {
+                exit();
+            }
+        });
     }
 
+    private void exit() {
+        io.shutdown();
+        dispose();
+        System.exit(0);
+    }
+
+    // Loads the snapshot and replays the journal on the I/O thread, then starts journaling new changes.
+    // Tasks reach the store in batches, so the table fills in while the rest is still being added.
     private void loadTasksFromFile() {
-    try (BufferedReader reader = new BufferedReader(new FileReader("tasks.txt"))) {
-        String line;
-        while ((line = reader.readLine()) != null) {
-            String[] taskData = line.split(",");
-            if (taskData.length == 3) {
-                String name = taskData[0];
-                String priority = taskData[1];
-                String status = taskData[2].trim();  // Trim to remove any extra spaces
-                
-                // Create the task with name and priority
-                logic.addTask(name, priority);
-                ToDoListLogic.Task task = logic.getTasks().getLast();
-                
-                // Set the status correctly
-                if (status.equals("✔") || status.equals("✖")) {
-                    task.setStatus(status);  // Only set if status is valid
+        // -Dtodo.snapshot=binary switches the snapshot from tasks.txt to the compact tasks.bin
+        SnapshotFormat format = "binary".equalsIgnoreCase(System.getProperty("todo.snapshot"))
+                ? SnapshotFormat.BINARY : SnapshotFormat.CSV;
+        Path snapshot = Paths.get(format.getDefaultFileName());
+        Path journalFile = Paths.get("tasks.journal");
+
+        setTaskButtonsEnabled(false);
+        progressPanel.setVisible(true);
+        loadJob = io.submit(job -> {
+            long start = TaskMetrics.now();
+            Path csv = Paths.get(SnapshotFormat.CSV.getDefaultFileName());
+            if (format != SnapshotFormat.CSV && !Files.exists(snapshot) && Files.exists(csv)) {
+                // First run with the binary format: convert the existing tasks.txt, keeping its journal position
+                Path temp = Paths.get(snapshot + ".tmp");
+                format.write(temp, SnapshotFormat.CSV.read(csv, p -> job.checkCancelled()), SnapshotFormat.CSV.readJournalSeq(csv));
+                Files.move(temp, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            if (format == SnapshotFormat.CSV && Files.exists(snapshot) && Files.size(snapshot) > PAGED_THRESHOLD) {
+                // Only the visible pages are parsed; there is no store to journal changes against
+                pagedTasks = PagedTaskList.open(snapshot, PAGE_CACHE_BYTES, job::setProgress);
+                LOAD.record(start);
+                return null;
+            }
+            if (Files.exists(snapshot)) {
+                // Parsing is the first 90%, handing the tasks to the store the rest
+                List<ToDoListLogic.Task> tasks = format.read(snapshot, p -> {
+                    job.checkCancelled();
+                    job.setProgress(p * 9 / 10);
+                });
+                for (int from = 0; from < tasks.size(); from += LOAD_BATCH) {
+                    job.checkCancelled();
+                    logic.addTasks(tasks.subList(from, Math.min(from + LOAD_BATCH, tasks.size())));
+                    job.setProgress(90 + (int) (10L * from / tasks.size()));
+                }
+            }
+            // Past this point the load is no longer cancellable: the journal must see the whole snapshot
+            journal = TaskJournal.open(snapshot, format, journalFile, logic);
+            searchIndex = TaskSearchIndex.attach(logic.getStore());
+            LOAD.record(start);
+            return journal;
+        }, loadProgress::setValue, new TaskIoExecutor.Callback<TaskJournal>() {
+            @Override
+            public void done(TaskJournal result) {
+                if (closing) {
+                    return;
+                }
+                progressPanel.setVisible(false);
+                if (pagedTasks != null) {
+                    mainTable.setModel(new TaskTableModel(pagedTasks));
+                    setTitle(getTitle() + " (read-only)");
+                    JOptionPane.showMessageDialog(ToDoListGUI.this, "The task file is too large to edit. Tasks are shown read-only, "
+                            + "without changes made since the last save.", "Large Task File", JOptionPane.INFORMATION_MESSAGE);
                 } else {
-                    task.setStatus("Unknown");  // If status is not valid, set it to "Unknown"
+                    result.setFailureListener(e -> SwingUtilities.invokeLater(() -> journalFailed(e)));
+                    setTaskButtonsEnabled(true);
+                    searchField.setEnabled(true);
+                    sortBox.setEnabled(true);
                 }
             }
+
+            @Override
+            public void failed(Exception e) {
+                if (closing) {
+                    return;
+                }
+                progressPanel.setVisible(false);
+                // Any of them may be the one that could not be read, including a tasks.txt still to be converted
+                List<Path> files = new ArrayList<>(Arrays.asList(snapshot, journalFile));
+                if (format != SnapshotFormat.CSV) {
+                    files.add(Paths.get(SnapshotFormat.CSV.getDefaultFileName()));
+                }
+                StringBuilder kept = new StringBuilder();
+                for (Path file : files) {
+                    kept.append("\n    ").append(file).append(".bad");
+                }
+                String[] options = {"Start with an Empty List", "View Read-Only"};
+                int choice = JOptionPane.showOptionDialog(ToDoListGUI.this, "Error loading tasks from file:\n" + causeOf(e)
+                        + "\n\nStart with an empty list? The task files are kept as:" + kept, "Error Loading Tasks",
+                        JOptionPane.YES_NO_OPTION, JOptionPane.ERROR_MESSAGE, null, options, options[0]);
+                if (choice == 0) {
+                    startEmpty(files);
+                } else {
+                    // As after a cancelled load: without the journal, edits would be lost
+                    executedTasksButton.setEnabled(true);
+                    nonExecutedTasksButton.setEnabled(true);
+                }
+            }
+
+            @Override
+            public void cancelled() {
+                if (closing) {
+                    return;
+                }
+                progressPanel.setVisible(false);
+                // Without the journal, edits would be lost, so only the read-only views stay available
+                executedTasksButton.setEnabled(true);
+                nonExecutedTasksButton.setEnabled(true);
+                JOptionPane.showMessageDialog(ToDoListGUI.this, "Loading was cancelled. Tasks are read-only until the next start.",
+                        "Load Cancelled", JOptionPane.WARNING_MESSAGE);
+            }
+        });
+    }
+
+    // The journal has stopped recording after a failed write; say so now rather than at exit
+    private void journalFailed(IOException e) {
+        if (closing) {
+            return;
         }
-    } catch (IOException e) {
-        // Handle file not found or read error, no need to show an error since the file might not exist on first run
+        JOptionPane.showMessageDialog(this, "Changes can no longer be saved to tasks.journal:\n" + e
+                + "\n\nChanges made from now on will be lost when the window closes.", "Error Saving Tasks", JOptionPane.ERROR_MESSAGE);
+    }
+
+    // After a failed load: drops whatever part of the files was loaded, sets them aside and loads again, which finds
+    // nothing and opens a fresh journal
+    private void startEmpty(List<Path> files) {
+        io.submit(job -> {
+            if (journal != null) {
+                journal.close();
+                journal = null;
+            }
+            TaskBatch removeAll = new TaskBatch();
+            for (ToDoListLogic.Task task : logic.getStore().snapshot()) {
+                removeAll.remove(task.getId());
+            }
+            logic.applyBatch(removeAll);
+            for (Path file : files) {
+                if (Files.exists(file)) {
+                    Files.move(file, Paths.get(file + ".bad"), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            return null;
+        }, p -> { }, new TaskIoExecutor.Callback<Object>() {
+            @Override
+            public void done(Object result) {
+                if (closing) {
+                    return;
+                }
+                loadProgress.setValue(0);
+                loadTasksFromFile();
+            }
+
+            @Override
+            public void failed(Exception e) {
+                if (closing) {
+                    return;
+                }
+                JOptionPane.showMessageDialog(ToDoListGUI.this, "Could not set the task files aside:\n" + causeOf(e),
+                        "Error Loading Tasks", JOptionPane.ERROR_MESSAGE);
+                executedTasksButton.setEnabled(true);
+                nonExecutedTasksButton.setEnabled(true);
+            }
+
+            @Override
+            public void cancelled() {
+            }
+        });
+    }
+
+    // The exception and, when it wraps another, the one underneath that says what went wrong
+    private static String causeOf(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root == e ? e.toString() : e + "\n" + root;
+    }
+
+    // Edits stay off until the journal is open, so none can be lost or interleave with its replay
+    private void setTaskButtonsEnabled(boolean enabled) {
+        addTaskButton.setEnabled(enabled);
+        editTaskButton.setEnabled(enabled);
+        executedTasksButton.setEnabled(enabled);
+        nonExecutedTasksButton.setEnabled(enabled);
+        importButton.setEnabled(enabled);
+        exportButton.setEnabled(enabled);
+    }
+
+    // Imports a CSV, TSV or JSON-lines file on the I/O thread; the tasks arrive in large batches, each journaled
+    // and shown like a load batch
+    private void importTasks() {
+        JFileChooser chooser = new JFileChooser(".");
+        chooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter(
+                "Task lists (CSV, TSV, JSON lines)", "csv", "txt", "tsv", "jsonl", "ndjson"));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path file = chooser.getSelectedFile().toPath();
+        setTaskButtonsEnabled(false);
+        loadProgress.setValue(0);
+        loadProgress.setString("Importing " + file.getFileName() + "...");
+        progressPanel.setVisible(true);
+        loadJob = io.submit(job -> TaskImporter.importFile(logic, file, TaskImporter.Format.of(file), p -> {
+            job.checkCancelled();
+            job.setProgress(p);
+        }), loadProgress::setValue, new TaskIoExecutor.Callback<TaskImporter.Result>() {
+            @Override
+            public void done(TaskImporter.Result result) {
+                importFinished();
+                StringBuilder message = new StringBuilder(String.format("Imported %,d tasks in %,d ms (%,.0f rows/s).",
+                        result.getImported(), result.getMillis(), result.getRowsPerSecond()));
+                if (result.getRejected() > 0) {
+                    message.append(String.format("%n%,d rows were rejected:", result.getRejected()));
+                    List<TaskImporter.Reject> rejects = result.getRejects();
+                    for (int i = 0; i < Math.min(10, rejects.size()); i++) {
+                        message.append(System.lineSeparator()).append(rejects.get(i));
+                    }
+                    if (result.getRejected() > 10) {
+                        message.append(System.lineSeparator()).append("...");
+                    }
+                }
+                JOptionPane.showMessageDialog(ToDoListGUI.this, message.toString(), "Import",
+                        result.getRejected() > 0 ? JOptionPane.WARNING_MESSAGE : JOptionPane.INFORMATION_MESSAGE);
+            }
+
+            @Override
+            public void failed(Exception e) {
+                importFinished();
+                JOptionPane.showMessageDialog(ToDoListGUI.this, "Error importing tasks: " + e.getMessage(), "Error",
+                        JOptionPane.ERROR_MESSAGE);
+            }
+
+            @Override
+            public void cancelled() {
+                importFinished();
+                JOptionPane.showMessageDialog(ToDoListGUI.this, "Import cancelled. Tasks imported before that were kept.",
+                        "Import", JOptionPane.WARNING_MESSAGE);
+            }
+        });
+    }
+
+    private void importFinished() {
+        if (closing) {
+            return;
+        }
+        progressPanel.setVisible(false);
+        setTaskButtonsEnabled(true);
+    }
+
+    // Writes the tasks as they are now to a CSV, JSON-lines or binary file on the I/O thread; edits made
+    // meanwhile carry on and are not in the file
+    private void exportTasks() {
+        JFileChooser chooser = new JFileChooser(".");
+        chooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter(
+                "Task lists (CSV, JSON lines, binary)", "csv", "txt", "jsonl", "ndjson", "bin"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path file = chooser.getSelectedFile().toPath();
+        exportButton.setEnabled(false);
+        long start = System.nanoTime();
+        io.submit(job -> TaskExporter.export(logic.getStore(), file, TaskExporter.Format.of(file)), p -> { },
+                new TaskIoExecutor.Callback<Integer>() {
+                    @Override
+                    public void done(Integer count) {
+                        if (closing) {
+                            return;
+                        }
+                        exportButton.setEnabled(true);
+                        JOptionPane.showMessageDialog(ToDoListGUI.this, String.format("Exported %,d tasks to %s in %,d ms.",
+                                count, file.getFileName(), (System.nanoTime() - start) / 1_000_000), "Export",
+                                JOptionPane.INFORMATION_MESSAGE);
+                    }
+
+                    @Override
+                    public void failed(Exception e) {
+                        if (closing) {
+                            return;
+                        }
+                        exportButton.setEnabled(true);
+                        JOptionPane.showMessageDialog(ToDoListGUI.this, "Error exporting tasks: " + e.getMessage(), "Error",
+                                JOptionPane.ERROR_MESSAGE);
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        exportButton.setEnabled(!closing);
+                    }
+                });
     }
-}
 
 
     private void openAddTaskDialog() {
@@ -132,7 +534,6 @@ public class ToDoListGUI extends JFrame {
             }
             String priority = (String) priorityBox.getSelectedItem();
             logic.addTask(taskName, priority);
-            updateMainTable();
             dialog.dispose();
         });
 
@@ -154,73 +555,77 @@ public class ToDoListGUI extends JFrame {
             @Override
             public Class<?> getColumnClass(int column) {
                 if (column == 2 || column == 3) return Boolean.class; // Checkboxes for Done/Not Done
-                if (column == 4) return JButton.class; // For the Remove button
-                return String.class;
+                return String.class; // The Remove column holds only its label; one shared button draws it
             }
         };
+        // Id of the task in each row, so edits still hit the right task if the list has shifted meanwhile
+        List<Long> rowIds = new ArrayList<>();
+        // Checkbox values of the rows the user touched, and the tasks marked for removal; Save applies only these
+        Map<Long, boolean[]> dirtyRows = new LinkedHashMap<>();
+        Set<Long> removedIds = new LinkedHashSet<>();
+
+        // Populate Edit Table with tasks, before the JTable exists so it is not told about every row
+        for (ToDoListLogic.Task task : logic.getStore().snapshot()) {
+            boolean isDone = task.getStatus() == TaskStatus.DONE;
+            boolean isNotDone = task.getStatus() == TaskStatus.NOT_DONE;
+            editTableModel.addRow(new Object[]{task.getName(), task.getPriority(), isDone, isNotDone, "Remove"});
+            rowIds.add(task.getId());
+        }
         JTable editTable = new JTable(editTableModel);
 
-        // Populate Edit Table with tasks
-        for (ToDoListLogic.Task task : logic.getTasks()) {
-            boolean isDone = task.getStatus().equals("✔");
-            boolean isNotDone = task.getStatus().equals("✖");
-            JButton removeButton = new JButton("Remove");
-
-            // Add ActionListener to the remove button
-            TableColumn removeColumn = editTable.getColumnModel().getColumn(4);
-            removeColumn.setCellRenderer((table, value, isSelected, hasFocus, row, col) -> new JButton("Remove"));
-            removeColumn.setCellEditor(new DefaultCellEditor(new JCheckBox()) {
-                private final JButton button = new JButton("Remove");
-
-                {
-                    button.addActionListener(e -> {
-                        int row = editTable.getSelectedRow();
-                        if (row >= 0) {
-                            editTableModel.removeRow(row); // Remove row from edit table
-                            logic.removeTask(row);        // Remove corresponding task from logic
-                            updateMainTable();           // Refresh all tables
-                        }
-                    });
-                }
-
-                @Override
-                public Component getTableCellEditorComponent(JTable table, Object value, boolean isSelected, int row, int column) {
-                    return button;
+        // One renderer/editor for the whole Remove column
+        ActionCellRendererEditor removeAction = new ActionCellRendererEditor("Remove", row -> {
+            long id = rowIds.remove(row);
+            dirtyRows.remove(id);
+            removedIds.add(id);            // Removed from the logic on Save, with the other edits
+            editTableModel.removeRow(row); // Remove row from edit table
+        });
+        TableColumn removeColumn = editTable.getColumnModel().getColumn(4);
+        removeColumn.setCellRenderer(removeAction);
+        removeColumn.setCellEditor(removeAction);
+
+        // Record each checkbox change as it happens, so saving never has to walk the whole table
+        editTableModel.addTableModelListener(e -> {
+            if (e.getType() == javax.swing.event.TableModelEvent.UPDATE && (e.getColumn() == 2 || e.getColumn() == 3)) {
+                for (int row = e.getFirstRow(); row <= e.getLastRow(); row++) {
+                    dirtyRows.put(rowIds.get(row), new boolean[]{
+                            (boolean) editTableModel.getValueAt(row, 2), (boolean) editTableModel.getValueAt(row, 3)});
                 }
-            });
-            editTableModel.addRow(new Object[]{task.getName(), task.getPriority(), isDone, isNotDone, removeButton});
-        }
+            }
+        });
 
         // Save Changes Button
         JButton saveChangesButton = new JButton("Save Changes");
         saveChangesButton.addActionListener(e -> {
-            // Iterate over the rows of the edit table
-            for (int i = 0; i < editTableModel.getRowCount(); i++) {
-                // Get the 'Done' and 'Not Done' status from the table
-                boolean isDone = (boolean) editTableModel.getValueAt(i, 2);
-                boolean isNotDone = (boolean) editTableModel.getValueAt(i, 3);
+            TaskBatch batch = new TaskBatch();
+            removedIds.forEach(batch::remove);
+            for (Map.Entry<Long, boolean[]> row : dirtyRows.entrySet()) {
+                boolean isDone = row.getValue()[0];
+                boolean isNotDone = row.getValue()[1];
 
-                // Check if both 'Done' and 'Not Done' are selected for the same task
+                // Check if both 'Done' and 'Not Done' are selected for the same task; nothing is saved until fixed
                 if (isDone && isNotDone) {
                     JOptionPane.showMessageDialog(dialog, "Task cannot be both Done and Not Done!", "Error", JOptionPane.ERROR_MESSAGE);
                     return;
                 }
 
-                // Get the corresponding task from the logic's task list
-                ToDoListLogic.Task task = logic.getTasks().get(i);
-
                 // Set the status based on the checkboxes
                 if (isDone) {
-                    task.setStatus("✔"); // Task is done
+                    batch.setStatus(row.getKey(), TaskStatus.DONE); // Task is done
                 } else if (isNotDone) {
-                    task.setStatus("✖"); // Task is not done
+                    batch.setStatus(row.getKey(), TaskStatus.NOT_DONE); // Task is not done
                 } else {
-                    task.setStatus("Unknown"); // Task is in progress (no status)
+                    batch.setStatus(row.getKey(), TaskStatus.UNKNOWN); // Task is in progress (no status)
                 }
             }
 
-            // Update the main table after saving the changes
-            updateMainTable();
+            // One all-or-nothing change set through the logic, so it is journaled and the main table follows
+            try {
+                logic.applyBatch(batch);
+            } catch (IllegalArgumentException ex) {
+                JOptionPane.showMessageDialog(dialog, "Some of these tasks no longer exist. No changes were saved.", "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
             dialog.dispose();
         });
 
@@ -229,24 +634,82 @@ public class ToDoListGUI extends JFrame {
         dialog.setVisible(true);
     }
 
-    private void showFilteredTasks(String status, String title) {
-        LinkedList<ToDoListLogic.Task> filteredTasks = logic.getFilteredTasks(status);
-        DefaultTableModel filteredTableModel = new DefaultTableModel(new String[]{"Task Name", "Priority", "Status"}, 0);
-        for (ToDoListLogic.Task task : filteredTasks) {
-            filteredTableModel.addRow(new Object[]{task.getName(), task.getPriority(), task.getStatus()});
+    private void searchTasks() {
+        String query = searchField.getText().trim();
+        if (query.isEmpty() || searchIndex == null) {
+            mainTable.setModel(sortedModel != null ? sortedModel : mainTableModel);
+            searchResultLabel.setText("");
+            return;
         }
-        JTable filteredTable = new JTable(filteredTableModel);
-        JOptionPane.showMessageDialog(this, new JScrollPane(filteredTable), title, JOptionPane.PLAIN_MESSAGE);
+        TaskSearchIndex.Result result = searchIndex.search(query, SEARCH_LIMIT);
+
+        // A snapshot of the matches; typing again or clearing the box brings back the live list
+        DefaultTableModel resultModel = new DefaultTableModel(new String[]{"Task Name", "Priority", "Status"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        for (ToDoListLogic.Task task : result.getTasks()) {
+            resultModel.addRow(new Object[]{task.getName(), task.getPriority(), task.getStatus()});
+        }
+        mainTable.setModel(resultModel);
+        searchResultLabel.setText(result.getTotal() > result.getTasks().size()
+                ? result.getTasks().size() + " of " + result.getTotal() + " matches"
+                : result.getTotal() + " matches");
     }
 
-    private void updateMainTable() {
-        tableModel.setRowCount(0); // Clear the existing rows
-        for (ToDoListLogic.Task task : logic.getTasks()) {
-            tableModel.addRow(new Object[]{task.getName(), task.getPriority(), task.getStatus()});
+    // Sorts the tasks off the EDT, then swaps the main table to the sorted rows in one step; from then on the
+    // sorted model moves single rows as tasks change
+    private void sortTasks() {
+        TaskOrder order = SORT_ORDERS.get((String) sortBox.getSelectedItem());
+        int generation = ++sortGeneration;
+        if (sortedModel != null) {
+            sortedModel.detach();
+            sortedModel = null;
         }
+        if (order == TaskOrder.PRIORITY) {
+            showSortedTasks();
+            return;
+        }
+        CompletableFuture.supplyAsync(() -> SortedTaskTableModel.attach(logic, order))
+                .whenComplete((model, error) -> SwingUtilities.invokeLater(() -> {
+                    if (generation != sortGeneration || closing) {
+                        if (model != null) {
+                            model.detach();
+                        }
+                        return;
+                    }
+                    if (error != null) {
+                        JOptionPane.showMessageDialog(this, "Error sorting tasks.", "Error", JOptionPane.ERROR_MESSAGE);
+                        return;
+                    }
+                    sortedModel = model;
+                    showSortedTasks();
+                }));
+    }
+
+    // Search results stay on screen until the box is cleared; searchTasks() then picks up the new order
+    private void showSortedTasks() {
+        if (searchField.getText().trim().isEmpty()) {
+            mainTable.setModel(sortedModel != null ? sortedModel : mainTableModel);
+        }
+    }
+
+    private void showFilteredTasks(TaskStatus status, String title) {
+        // Reads the logic's status index directly; nothing is copied however many tasks match
+        long start = TaskMetrics.now();
+        TaskTableModel filteredTableModel = new TaskTableModel(logic, status);
+        JTable filteredTable = new JTable(filteredTableModel);
+        JScrollPane scrollPane = new JScrollPane(filteredTable);
+        FILTERED_VIEW.record(start);
+        JOptionPane.showMessageDialog(this, scrollPane, title, JOptionPane.PLAIN_MESSAGE);
+        filteredTableModel.detach();
     }
 
     public static void main(String[] args) {
+        // -Dtodo.edtWatchdog=true logs event handlers that hold up the EDT
+        EdtWatchdog.installIfEnabled();
         SwingUtilities.invokeLater(() -> new ToDoListGUI());
     }
 }
@@ -1,17 +1,41 @@
 package eg;
-import java.util.LinkedList;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
 
 public class ToDoListLogic {
         // Task class
         public static class Task {
             private final String name;
-            private final String priority;
-            private String status;
+            private final Priority priority;
+            private final TaskStatus status;
+            // Stable id handed out by TaskStore in insertion order; tasks of equal priority are shown in id order.
+            // 0 until the task is stored, and never changed after that.
+            long id;
 
             public Task(String name, String priority) {
+                this(name, priority, TaskStatus.UNKNOWN);
+            }
+
+            public Task(String name, String priority, TaskStatus status) {
+                this(0, name, priority, status);
+            }
+
+            // For tasks read back from a snapshot or journal, which keep the id they were stored with
+            public Task(long id, String name, String priority, TaskStatus status) {
+                this(id, name, Priority.of(priority), status);
+            }
+
+            public Task(long id, String name, Priority priority, TaskStatus status) {
+                this.id = id;
                 this.name = name;
                 this.priority = priority;
-                this.status = "Unknown";
+                this.status = status;
+            }
+
+            public long getId() {
+                return id;
             }
 
             public String getName() {
@@ -19,104 +43,169 @@ public class ToDoListLogic {
             }
 
             public String getPriority() {
+                return priority.getName();
+            }
+
+            public Priority getPriorityValue() {
                 return priority;
             }
 
-            public String getStatus() {
+            public TaskStatus getStatus() {
                 return status;
             }
 
-            public void setStatus(String status) {
-                this.status = status;
+            // A stored task never changes, so snapshots can share it; TaskStore changes a status by storing this copy
+            Task withStatus(TaskStatus status) {
+                return new Task(id, name, priority, status);
             }
 
             // Priority levels as integers for sorting
             public int getPriorityLevel() {
-                switch (priority) {
-                    case "High":
-                        return 1;
-                    case "Medium":
-                        return 2;
-                    case "Low":
-                        return 3;
-                    default:
-                        return Integer.MAX_VALUE;
-                }
+                return priority.getLevel();
             }
         }
 
-        private final LinkedList<Task> tasks;
+        // Timed only when started with -Dtodo.metrics=true; see TaskMetrics
+        private static final TaskMetrics.Latency ADD_TASK = TaskMetrics.latency("logic.addTask");
+        private static final TaskMetrics.Latency ADD_TASKS = TaskMetrics.latency("logic.addTasks");
+        private static final TaskMetrics.Latency REMOVE_TASK = TaskMetrics.latency("logic.removeTask");
+        private static final TaskMetrics.Latency SET_STATUS = TaskMetrics.latency("logic.setStatus");
+        private static final TaskMetrics.Latency SET_STATUS_BULK = TaskMetrics.latency("logic.setStatusBulk");
+        private static final TaskMetrics.Latency APPLY_BATCH = TaskMetrics.latency("logic.applyBatch");
+        private static final TaskMetrics.Counter TASKS_ADDED = TaskMetrics.counter("logic.tasksAdded");
+
+        private final TaskStore store;
+        private final List<Task> view;
+        private final List<List<Task>> statusViews;
 
         public ToDoListLogic() {
-            tasks = new LinkedList<>();
+            this(new TaskStore());
+        }
+
+        // Several windows or background jobs can share one store
+        public ToDoListLogic(TaskStore store) {
+            this.store = store;
+            view = new TaskListView(store, null);
+            statusViews = new ArrayList<>(TaskStatus.values().length);
+            for (TaskStatus status : TaskStatus.values()) {
+                statusViews.add(new TaskListView(store, status));
+            }
+        }
+
+        public TaskStore getStore() {
+            return store;
+        }
+
+        // Store changes batched per frame for the EDT; what table models listen to
+        public TaskChangeBus getChangeBus() {
+            return store.getChangeBus();
         }
 
-        public void addTask(String name, String priority) {
-            tasks.add(new Task(name, priority));
-            mergeSort(tasks); // Sort the tasks after each addition
+        public void addChangeListener(TaskStore.ChangeListener listener) {
+            store.addChangeListener(listener);
+        }
+
+        public void removeChangeListener(TaskStore.ChangeListener listener) {
+            store.removeChangeListener(listener);
+        }
+
+        // Tasks go straight into their priority bucket, so the list stays sorted without re-sorting
+        public Task addTask(String name, String priority) {
+            return addTask(new Task(name, priority));
+        }
+
+        public Task addTask(Task task) {
+            long start = TaskMetrics.now();
+            Task added = store.add(task);
+            ADD_TASK.record(start);
+            TASKS_ADDED.increment();
+            return added;
+        }
+
+        // Bulk insert used by the file loader; tasks keep their relative order within each priority
+        public void addTasks(List<Task> batch) {
+            long start = TaskMetrics.now();
+            store.addAll(batch);
+            ADD_TASKS.record(start);
+            TASKS_ADDED.add(batch.size());
         }
 
         public void removeTask(int index) {
-            if (index >= 0 && index < tasks.size()) {
-                tasks.remove(index);
-            }
+            long start = TaskMetrics.now();
+            store.remove(index);
+            REMOVE_TASK.record(start);
         }
 
-        public LinkedList<Task> getTasks() {
-            return tasks;
+        public void setStatus(int index, TaskStatus status) {
+            long start = TaskMetrics.now();
+            store.setStatus(index, status);
+            SET_STATUS.record(start);
         }
 
-        public LinkedList<Task> getFilteredTasks(String status) {
-            LinkedList<Task> filtered = new LinkedList<>();
-            for (Task task : tasks) {
-                if (task.getStatus().equals(status)) {
-                    filtered.add(task);
-                }
-            }
-            return filtered;
+        // Ids stay valid however the list shifts, so prefer these over positions
+        public Task getTaskById(long id) {
+            return store.getById(id);
         }
 
-        // Merge Sort method to sort tasks based on priority level
-        public void mergeSort(LinkedList<Task> list) {
-            if (list.size() <= 1) {
-                return; // Base case: single element or empty list
-            }
+        public boolean removeTaskById(long id) {
+            long start = TaskMetrics.now();
+            boolean removed = store.removeById(id) != null;
+            REMOVE_TASK.record(start);
+            return removed;
+        }
 
-            // Split the list into two halves
-            int middle = list.size() / 2;
-            LinkedList<Task> left = new LinkedList<>(list.subList(0, middle));
-            LinkedList<Task> right = new LinkedList<>(list.subList(middle, list.size()));
+        public boolean setStatusById(long id, TaskStatus status) {
+            long start = TaskMetrics.now();
+            boolean changed = store.setStatusById(id, status);
+            SET_STATUS.record(start);
+            return changed;
+        }
 
-            // Recursively sort both halves
-            mergeSort(left);
-            mergeSort(right);
+        // Bulk form for large edits; returns how many tasks changed
+        public int setStatusById(long[] ids, TaskStatus status) {
+            long start = TaskMetrics.now();
+            int changed = store.setStatusById(ids, status);
+            SET_STATUS_BULK.record(start);
+            return changed;
+        }
 
-            // Merge the sorted halves
-            merge(list, left, right);
+        // All or nothing; see TaskStore.applyBatch
+        public void applyBatch(TaskBatch batch) {
+            long start = TaskMetrics.now();
+            store.applyBatch(batch);
+            APPLY_BATCH.record(start);
         }
 
-        // Merge two sorted lists into one sorted list
-        private void merge(LinkedList<Task> list, LinkedList<Task> left, LinkedList<Task> right) {
-            list.clear();
-            int i = 0, j = 0;
+        // Read-only view in priority order; positions match removeTask(int).
+        // Each call is consistent on its own; iterate a TaskStore.snapshot() instead while other threads write.
+        public List<Task> getTasks() {
+            return view;
+        }
 
-            // Merge the two lists while maintaining order
-            while (i < left.size() && j < right.size()) {
-                if (left.get(i).getPriorityLevel() < right.get(j).getPriorityLevel()) {
-                    list.add(left.get(i++));
-                } else {
-                    list.add(right.get(j++));
-                }
+        // Live read-only view of the tasks with the given status, in the same order as getTasks()
+        public List<Task> getFilteredTasks(TaskStatus status) {
+            return statusViews.get(status.ordinal());
+        }
+
+        private static final class TaskListView extends AbstractList<Task> implements RandomAccess {
+            private final TaskStore store;
+            // null for all tasks
+            private final TaskStatus status;
+
+            TaskListView(TaskStore store, TaskStatus status) {
+                this.store = store;
+                this.status = status;
             }
 
-            // If there are any remaining elements in left, add them
-            while (i < left.size()) {
-                list.add(left.get(i++));
+            // Not timed: a table repaint reads hundreds of rows, so callers time the whole operation instead
+            @Override
+            public Task get(int index) {
+                return status == null ? store.get(index) : store.get(status, index);
             }
 
-            // If there are any remaining elements in right, add them
-            while (j < right.size()) {
-                list.add(right.get(j++));
+            @Override
+            public int size() {
+                return status == null ? store.size() : store.size(status);
             }
         }
-    }
+    }
\ No newline at end of file
@@ -0,0 +1,148 @@
+package eg;
+
+import java.awt.EventQueue;
+import java.awt.SecondaryLoop;
+import java.awt.Toolkit;
+import java.awt.event.InvocationEvent;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EdtWatchdogTest {
+
+    // Well above what class loading or a busy machine adds to an event, well below a slow handler
+    private static final long THRESHOLD_MS = 100;
+    private static final long SLOW_MS = 300;
+
+    private EdtWatchdog watchdog;
+
+    @Before
+    public void install() {
+        watchdog = new EdtWatchdog(THRESHOLD_MS);
+        watchdog.install();
+    }
+
+    @After
+    public void uninstall() {
+        watchdog.uninstall();
+    }
+
+    @Test
+    public void fastEventsAreNotReported() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            post(() -> { });
+        }
+        drain();
+
+        assertTrue(watchdog.report(), watchdog.getStats().isEmpty());
+    }
+
+    @Test
+    public void slowEventsAreGroupedByHandlerMethod() throws Exception {
+        post(this::saveTasks);
+        post(this::saveTasks);
+        post(() -> { });
+        drain();
+
+        List<EdtWatchdog.HandlerStats> stats = watchdog.getStats();
+        assertEquals(watchdog.report(), 1, stats.size());
+        EdtWatchdog.HandlerStats save = stats.get(0);
+        assertEquals("EdtWatchdogTest.saveTasks", save.getHandler());
+        assertEquals(2, save.getSlowCount());
+        assertTrue(save.getMaxMillis() >= SLOW_MS);
+        assertTrue(save.getSlowestStack().length > 0);
+    }
+
+    @Test
+    public void listenerClassesAndLambdasNameTheMethodTheyRun() throws Exception {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                openEditTaskDialog();
+            }
+        });
+        updateMainTable();
+        drain();
+
+        assertEquals(watchdog.report(), 2, watchdog.getStats().size());
+        assertEquals(watchdog.report(), 1, slowCount("EdtWatchdogTest.openEditTaskDialog"));
+        assertEquals(watchdog.report(), 1, slowCount("EdtWatchdogTest.updateMainTable"));
+    }
+
+    @Test
+    public void timeInANestedLoopIsChargedToTheEventsItRuns() throws Exception {
+        CountDownLatch closed = new CountDownLatch(1);
+        post(() -> {
+            showModalDialog();
+            closed.countDown();
+        });
+        assertTrue(closed.await(10, TimeUnit.SECONDS));
+        drain();
+
+        // The dialog's event was open for longer than the refresh, but spent nearly all of it waiting
+        assertEquals(watchdog.report(), 1, slowCount("EdtWatchdogTest.refreshTable"));
+        for (EdtWatchdog.HandlerStats stats : watchdog.getStats()) {
+            if (!stats.getHandler().equals("EdtWatchdogTest.refreshTable")) {
+                assertTrue(watchdog.report(), stats.getMaxMillis() < SLOW_MS);
+            }
+        }
+    }
+
+    // Handlers, as a window would have them
+
+    private void saveTasks() {
+        pause(SLOW_MS);
+    }
+
+    private void openEditTaskDialog() {
+        pause(SLOW_MS);
+    }
+
+    private void updateMainTable() {
+        post(() -> pause(SLOW_MS));
+    }
+
+    private void refreshTable() {
+        pause(SLOW_MS);
+    }
+
+    // Runs a nested event loop, as a modal dialog does, until the events queued behind it have run
+    private void showModalDialog() {
+        SecondaryLoop loop = Toolkit.getDefaultToolkit().getSystemEventQueue().createSecondaryLoop();
+        post(this::refreshTable);
+        post(loop::exit);
+        assertTrue(loop.enter());
+    }
+
+    private int slowCount(String handler) {
+        for (EdtWatchdog.HandlerStats stats : watchdog.getStats()) {
+            if (stats.getHandler().equals(handler)) {
+                return stats.getSlowCount();
+            }
+        }
+        return 0;
+    }
+
+    private static void post(Runnable runnable) {
+        Toolkit.getDefaultToolkit().getSystemEventQueue().postEvent(new InvocationEvent(Toolkit.getDefaultToolkit(), runnable));
+    }
+
+    // Waits until every event posted so far has been dispatched
+    private static void drain() throws Exception {
+        EventQueue.invokeAndWait(() -> { });
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
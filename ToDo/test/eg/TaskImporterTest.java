@@ -0,0 +1,54 @@
+package eg;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class TaskImporterTest {
+
+    private static final String DONE = TaskStatus.DONE.getSymbol();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void csvNameWithLineBreakSavesAsOneTask() throws IOException {
+        assertOneTaskAfterReload("\"Buy milk\nand eggs," + "Low," + DONE + ",99\",Low\n", TaskImporter.Format.CSV);
+    }
+
+    @Test
+    public void tsvNameWithEscapedLineBreakSavesAsOneTask() throws IOException {
+        assertOneTaskAfterReload("Buy milk\\r\\nand eggs,Low," + DONE + ",99\tLow\n", TaskImporter.Format.TSV);
+    }
+
+    @Test
+    public void jsonNameWithLineBreakSavesAsOneTask() throws IOException {
+        assertOneTaskAfterReload("{\"name\":\"Buy milk\\rand eggs,Low," + DONE + ",99\",\"priority\":\"Low\"}\n",
+                TaskImporter.Format.JSON_LINES);
+    }
+
+    // Imports the single record, saves the list as tasks.txt and loads it back as the app does on start
+    private void assertOneTaskAfterReload(String input, TaskImporter.Format format) throws IOException {
+        ToDoListLogic logic = new ToDoListLogic();
+        TaskImporter.Result result = TaskImporter.importFrom(logic, new StringReader(input), format);
+        assertEquals(1, result.getImported());
+        assertEquals("Buy milk and eggs,Low," + DONE + ",99", logic.getTasks().get(0).getName());
+
+        Path file = folder.getRoot().toPath().resolve(SnapshotFormat.CSV.getDefaultFileName());
+        SnapshotFormat.CSV.write(file, logic.getTasks(), 0);
+        List<ToDoListLogic.Task> loaded = SnapshotFormat.CSV.read(file, progress -> { });
+
+        assertEquals(1, loaded.size());
+        ToDoListLogic.Task task = loaded.get(0);
+        assertEquals("Buy milk and eggs,Low," + DONE + ",99", task.getName());
+        assertEquals(Priority.LOW, task.getPriorityValue());
+        assertNotEquals(99, task.getId());
+    }
+}
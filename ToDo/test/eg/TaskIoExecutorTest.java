@@ -0,0 +1,189 @@
+package eg;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.swing.SwingUtilities;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TaskIoExecutorTest {
+
+    private static final int TASKS = 300_000;
+    private static final int LOAD_BATCH = 50_000;
+    // The longest the EDT may wait behind a load before the window feels frozen
+    private static final long EDT_LAG_LIMIT_MS = 100;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final TaskIoExecutor io = new TaskIoExecutor();
+
+    @After
+    public void shutDown() {
+        io.shutdown();
+    }
+
+    @Test
+    public void loadReportsProgressAndResultOnTheEdt() throws Exception {
+        Path file = writeTasks(TASKS);
+        ToDoListLogic logic = new ToDoListLogic();
+        AtomicBoolean progressOffEdt = new AtomicBoolean();
+        AtomicLong lastProgress = new AtomicLong();
+        Outcome<Integer> outcome = new Outcome<>();
+
+        io.submit(job -> load(job, file, logic), percent -> {
+            progressOffEdt.compareAndSet(false, !SwingUtilities.isEventDispatchThread());
+            lastProgress.set(percent);
+        }, outcome);
+        outcome.await();
+
+        assertNull(outcome.failure);
+        assertEquals(Integer.valueOf(TASKS), outcome.result);
+        assertTrue(outcome.onEdt);
+        assertFalse(progressOffEdt.get());
+        assertTrue(lastProgress.get() > 0);
+        assertEquals(TASKS, logic.getTasks().size());
+    }
+
+    @Test
+    public void cancelStopsARunningJob() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        Outcome<Integer> outcome = new Outcome<>();
+
+        TaskIoExecutor.Job job = io.submit(j -> {
+            running.countDown();
+            while (true) {
+                j.checkCancelled();
+                Thread.sleep(1);
+            }
+        }, percent -> { }, outcome);
+        assertTrue(running.await(10, TimeUnit.SECONDS));
+        job.cancel();
+        outcome.await();
+
+        assertTrue(outcome.cancelled);
+        assertTrue(outcome.onEdt);
+        assertNull(outcome.result);
+        assertNull(outcome.failure);
+    }
+
+    @Test
+    public void jobCancelledWhileQueuedNeverRuns() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean ran = new AtomicBoolean();
+        Outcome<Boolean> first = new Outcome<>();
+        Outcome<Boolean> second = new Outcome<>();
+
+        io.submit(j -> release.await(10, TimeUnit.SECONDS), percent -> { }, first);
+        TaskIoExecutor.Job queued = io.submit(j -> ran.getAndSet(true), percent -> { }, second);
+        queued.cancel();
+        release.countDown();
+        first.await();
+        second.await();
+
+        assertTrue(second.cancelled);
+        assertFalse(ran.get());
+    }
+
+    @Test
+    public void edtStaysResponsiveDuringALoad() throws Exception {
+        Path file = writeTasks(TASKS);
+        ToDoListLogic logic = new ToDoListLogic();
+        // A table listening on the EDT, as in the window, so the load's row events are part of what is measured
+        SwingUtilities.invokeAndWait(() -> new TaskTableModel(logic));
+        AtomicLong maxLagNanos = new AtomicLong();
+        ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor();
+        heartbeat.scheduleAtFixedRate(() -> {
+            long sent = System.nanoTime();
+            SwingUtilities.invokeLater(() -> maxLagNanos.accumulateAndGet(System.nanoTime() - sent, Math::max));
+        }, 0, 5, TimeUnit.MILLISECONDS);
+        Outcome<Integer> outcome = new Outcome<>();
+        try {
+            io.submit(job -> load(job, file, logic), percent -> { }, outcome);
+            outcome.await();
+            SwingUtilities.invokeAndWait(() -> { });
+        } finally {
+            heartbeat.shutdownNow();
+        }
+
+        assertEquals(Integer.valueOf(TASKS), outcome.result);
+        long maxLagMs = TimeUnit.NANOSECONDS.toMillis(maxLagNanos.get());
+        assertTrue("EDT waited " + maxLagMs + " ms", maxLagMs < EDT_LAG_LIMIT_MS);
+    }
+
+    // As ToDoListGUI loads tasks.txt: parse, then hand the tasks to the store in batches
+    private static int load(TaskIoExecutor.Job job, Path file, ToDoListLogic logic) throws Exception {
+        List<ToDoListLogic.Task> tasks = SnapshotFormat.CSV.read(file, p -> {
+            job.checkCancelled();
+            job.setProgress(p * 9 / 10);
+        });
+        for (int from = 0; from < tasks.size(); from += LOAD_BATCH) {
+            job.checkCancelled();
+            logic.addTasks(tasks.subList(from, Math.min(from + LOAD_BATCH, tasks.size())));
+            job.setProgress(90 + (int) (10L * from / tasks.size()));
+        }
+        return tasks.size();
+    }
+
+    private Path writeTasks(int count) throws Exception {
+        List<ToDoListLogic.Task> tasks = new ArrayList<>(count);
+        TaskStatus[] statuses = TaskStatus.values();
+        String[] priorities = {"High", "Medium", "Low"};
+        for (int i = 0; i < count; i++) {
+            tasks.add(new ToDoListLogic.Task("Task " + i, priorities[i % 3], statuses[i % statuses.length]));
+        }
+        Path file = folder.getRoot().toPath().resolve(SnapshotFormat.CSV.getDefaultFileName());
+        SnapshotFormat.CSV.write(file, tasks, 0);
+        return file;
+    }
+
+    // Records how a job ended and whether the callback ran on the EDT
+    private static final class Outcome<T> implements TaskIoExecutor.Callback<T> {
+        private final CountDownLatch ended = new CountDownLatch(1);
+        private volatile T result;
+        private volatile Exception failure;
+        private volatile boolean cancelled;
+        private volatile boolean onEdt;
+
+        @Override
+        public void done(T result) {
+            this.result = result;
+            end();
+        }
+
+        @Override
+        public void failed(Exception e) {
+            failure = e;
+            end();
+        }
+
+        @Override
+        public void cancelled() {
+            cancelled = true;
+            end();
+        }
+
+        private void end() {
+            onEdt = SwingUtilities.isEventDispatchThread();
+            ended.countDown();
+        }
+
+        void await() throws InterruptedException {
+            assertTrue("job did not end", ended.await(60, TimeUnit.SECONDS));
+        }
+    }
+}
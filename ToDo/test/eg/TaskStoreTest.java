@@ -0,0 +1,58 @@
+package eg;
+
+import java.util.Arrays;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class TaskStoreTest {
+
+    @Test
+    public void addingAStoredTaskAgainStoresACopy() {
+        TaskStore store = new TaskStore();
+        ToDoListLogic.Task task = store.add(new ToDoListLogic.Task("Buy milk", "High"));
+        long id = task.getId();
+
+        ToDoListLogic.Task again = store.add(task);
+
+        assertNotSame(task, again);
+        assertEquals(id, task.getId());
+        assertNotEquals(id, again.getId());
+        assertSame(task, store.getById(id));
+        assertSame(again, store.getById(again.getId()));
+        assertEquals(Arrays.asList(task, again), store.snapshot());
+    }
+
+    @Test
+    public void batchWithAStoredTaskStoresACopy() {
+        TaskStore store = new TaskStore();
+        ToDoListLogic.Task first = store.add(new ToDoListLogic.Task("Buy milk", "High"));
+        ToDoListLogic.Task fresh = new ToDoListLogic.Task("Buy eggs", "High");
+
+        store.addAll(Arrays.asList(fresh, first, fresh));
+
+        assertEquals(4, store.size());
+        assertSame(first, store.getById(first.getId()));
+        assertSame(fresh, store.getById(fresh.getId()));
+        long previous = 0;
+        for (ToDoListLogic.Task task : store.snapshot()) {
+            // One bucket, so the visible order is id order, and every id finds its own task
+            assertEquals(true, task.getId() > previous);
+            assertSame(task, store.getById(task.getId()));
+            previous = task.getId();
+        }
+    }
+
+    @Test
+    public void logicsOverOneStoreShareItsChangeBus() {
+        TaskStore store = new TaskStore();
+
+        // Each bus stays registered with the store, so a logic made per window or job must not add another
+        assertSame(store.getChangeBus(), new ToDoListLogic(store).getChangeBus());
+        assertSame(store.getChangeBus(), new ToDoListLogic(store).getChangeBus());
+        assertNotSame(store.getChangeBus(), new TaskStore().getChangeBus());
+    }
+}
@@ -0,0 +1,41 @@
+package eg.bench;
+
+import eg.ToDoListLogic;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to fill an empty ToDoListLogic with the given number of tasks.
+ * Divide the task count by the reported time to get adds per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class AddTaskBenchmark {
+
+    private static final String[] PRIORITIES = {"High", "Medium", "Low"};
+
+    @Param({"1000", "100000", "1000000"})
+    public int tasks;
+
+    @Benchmark
+    public ToDoListLogic addTasks() {
+        ToDoListLogic logic = new ToDoListLogic();
+        for (int i = 0; i < tasks; i++) {
+            logic.addTask("Task " + i, PRIORITIES[i % PRIORITIES.length]);
+        }
+        return logic;
+    }
+}
@@ -0,0 +1,75 @@
+package eg.bench;
+
+import eg.ColumnarTaskStore;
+import eg.TaskStatus;
+import eg.ToDoListLogic;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Filtering by status and ordering by priority over every row, once on a
+ * list of Task objects and once on a ColumnarTaskStore holding the same
+ * tasks. Both return the matching row numbers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class ColumnarScanBenchmark {
+
+    @Param({"1000000", "10000000"})
+    public int tasks;
+
+    private List<ToDoListLogic.Task> objects;
+    private ColumnarTaskStore columns;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objects = TaskFixtures.tasks(tasks, Distribution.UNIFORM);
+        columns = ColumnarTaskStore.of(objects);
+    }
+
+    @Benchmark
+    public int[] filterObjects() {
+        int[] rows = new int[objects.size()];
+        int n = 0;
+        for (int row = 0; row < objects.size(); row++) {
+            if (objects.get(row).getStatus() == TaskStatus.DONE) {
+                rows[n++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, n);
+    }
+
+    @Benchmark
+    public int[] filterColumns() {
+        return columns.filter(TaskStatus.DONE);
+    }
+
+    @Benchmark
+    public ToDoListLogic.Task[] orderObjects() {
+        ToDoListLogic.Task[] sorted = objects.toArray(new ToDoListLogic.Task[0]);
+        Arrays.sort(sorted, (a, b) -> Integer.compare(a.getPriorityLevel(), b.getPriorityLevel()));
+        return sorted;
+    }
+
+    @Benchmark
+    public int[] orderColumns() {
+        return columns.orderByPriority();
+    }
+}
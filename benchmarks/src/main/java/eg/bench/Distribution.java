@@ -0,0 +1,13 @@
+package eg.bench;
+
+/** How priorities are spread over the generated tasks. */
+public enum Distribution {
+    // High, Medium and Low in equal parts
+    UNIFORM,
+    // 80% Low, 15% Medium, 5% High, like a long backlog
+    SKEWED,
+    // Everything in one bucket
+    SINGLE,
+    // Uniform, plus 10% with a priority outside High/Medium/Low
+    WITH_UNKNOWN
+}
@@ -0,0 +1,115 @@
+package eg.bench;
+
+import eg.ActionCellRendererEditor;
+import eg.TaskStatus;
+import eg.ToDoListLogic;
+import java.awt.Component;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.swing.DefaultCellEditor;
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JTable;
+import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableCellRenderer;
+import javax.swing.table.TableColumn;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Cost of opening the Edit Tasks dialog: filling its table model, creating
+ * the JTable with the Remove column and rendering every row of that column
+ * once, as scrolling through the whole list would. {@code perRowButtons} is
+ * the dialog as it was (a JButton per row, the column's renderer and editor
+ * reinstalled per row, a new JButton per paint); {@code sharedRenderer} uses
+ * ActionCellRendererEditor. Run with {@code -prof gc} for bytes allocated.
+ * Runs headless; no window is shown.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g", "-Djava.awt.headless=true"})
+public class EditTableBenchmark {
+
+    private static final String[] COLUMNS = {"Task Name", "Priority", "Done", "Not Done", "Remove"};
+
+    @Param({"5000", "50000"})
+    public int tasks;
+
+    private List<ToDoListLogic.Task> list;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        list = TaskFixtures.tasks(tasks, Distribution.UNIFORM);
+    }
+
+    @Benchmark
+    public JTable perRowButtons(Blackhole blackhole) {
+        DefaultTableModel model = newModel(JButton.class);
+        JTable table = new JTable(model);
+        for (ToDoListLogic.Task task : list) {
+            JButton removeButton = new JButton("Remove");
+            TableColumn removeColumn = table.getColumnModel().getColumn(4);
+            removeColumn.setCellRenderer((t, value, isSelected, hasFocus, row, col) -> new JButton("Remove"));
+            removeColumn.setCellEditor(new DefaultCellEditor(new JCheckBox()) {
+                private final JButton button = new JButton("Remove");
+
+                @Override
+                public Component getTableCellEditorComponent(JTable t, Object value, boolean isSelected, int row, int column) {
+                    return button;
+                }
+            });
+            model.addRow(new Object[]{task.getName(), task.getPriority(),
+                    task.getStatus() == TaskStatus.DONE, task.getStatus() == TaskStatus.NOT_DONE, removeButton});
+        }
+        renderRemoveColumn(table, blackhole);
+        return table;
+    }
+
+    @Benchmark
+    public JTable sharedRenderer(Blackhole blackhole) {
+        DefaultTableModel model = newModel(String.class);
+        for (ToDoListLogic.Task task : list) {
+            model.addRow(new Object[]{task.getName(), task.getPriority(),
+                    task.getStatus() == TaskStatus.DONE, task.getStatus() == TaskStatus.NOT_DONE, "Remove"});
+        }
+        JTable table = new JTable(model);
+        ActionCellRendererEditor removeAction = new ActionCellRendererEditor("Remove", model::removeRow);
+        TableColumn removeColumn = table.getColumnModel().getColumn(4);
+        removeColumn.setCellRenderer(removeAction);
+        removeColumn.setCellEditor(removeAction);
+        renderRemoveColumn(table, blackhole);
+        return table;
+    }
+
+    private static DefaultTableModel newModel(Class<?> removeColumnClass) {
+        return new DefaultTableModel(COLUMNS, 0) {
+            @Override
+            public Class<?> getColumnClass(int column) {
+                if (column == 2 || column == 3) return Boolean.class;
+                if (column == 4) return removeColumnClass;
+                return String.class;
+            }
+        };
+    }
+
+    private static void renderRemoveColumn(JTable table, Blackhole blackhole) {
+        TableCellRenderer renderer = table.getCellRenderer(0, 4);
+        for (int row = 0; row < table.getRowCount(); row++) {
+            blackhole.consume(table.prepareRenderer(renderer, row, 4));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package eg.bench;
+
+import eg.TaskExporter;
+import eg.ToDoListLogic;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Exporting a store of tasks with TaskExporter, in each format. The file
+ * size and the tasks and megabytes per second of the last export are
+ * printed at teardown.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class ExportBenchmark {
+
+    @Param({"1000000"})
+    public int tasks;
+
+    @Param({"CSV", "JSON_LINES", "BINARY"})
+    public TaskExporter.Format format;
+
+    private ToDoListLogic logic;
+    private Path dir;
+    private Path file;
+    private long lastNanos;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        logic = new ToDoListLogic();
+        logic.addTasks(TaskFixtures.tasks(tasks, Distribution.UNIFORM));
+        dir = Files.createTempDirectory("export-bench");
+        file = dir.resolve("export");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        long bytes = Files.size(file);
+        System.out.printf("%s: %d bytes, %.0f tasks/s, %.1f MB/s%n", format, bytes,
+                tasks * 1e9 / lastNanos, bytes * 1e3 / lastNanos);
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public int export() throws IOException {
+        long start = System.nanoTime();
+        int written = TaskExporter.export(logic.getStore(), file, format);
+        lastNanos = System.nanoTime() - start;
+        return written;
+    }
+}
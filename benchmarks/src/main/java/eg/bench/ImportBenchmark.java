@@ -0,0 +1,84 @@
+package eg.bench;
+
+import eg.TaskImporter;
+import eg.ToDoListLogic;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Importing a file of tasks into an empty list with TaskImporter, in each
+ * format. One task in ten has a comma in its name, so the CSV has quoted
+ * fields. The rows per second of the last import are printed at teardown.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class ImportBenchmark {
+
+    @Param({"1000000"})
+    public int tasks;
+
+    @Param({"CSV", "TSV", "JSON_LINES"})
+    public TaskImporter.Format format;
+
+    private Path file;
+    private TaskImporter.Result last;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("import-bench", "." + format);
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            int i = 0;
+            for (ToDoListLogic.Task task : TaskFixtures.tasks(tasks, Distribution.UNIFORM)) {
+                String name = i++ % 10 == 0 ? task.getName() + ", urgent" : task.getName();
+                String status = task.getStatus().getSymbol();
+                switch (format) {
+                    case CSV:
+                        out.write((name.indexOf(',') >= 0 ? "\"" + name + "\"" : name) + "," + task.getPriority() + "," + status);
+                        break;
+                    case TSV:
+                        out.write(name + "\t" + task.getPriority() + "\t" + status);
+                        break;
+                    default:
+                        out.write("{\"name\":\"" + name + "\",\"priority\":\"" + task.getPriority()
+                                + "\",\"status\":\"" + status + "\"}");
+                        break;
+                }
+                out.newLine();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.out.printf("%s: %.0f rows/s, %d rejects%n", format, last.getRowsPerSecond(), last.getRejected());
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public ToDoListLogic importFile() throws IOException {
+        ToDoListLogic logic = new ToDoListLogic();
+        last = TaskImporter.importFile(logic, file, format, progress -> { });
+        return logic;
+    }
+}
@@ -0,0 +1,78 @@
+package eg.bench;
+
+import eg.SnapshotFormat;
+import eg.TaskImporter;
+import eg.TaskJournal;
+import eg.ToDoListLogic;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Imports a file of tasks into a list that keeps a journal, then loads the
+ * snapshot and journal again as the app does on start and checks that the
+ * same number of tasks comes back. An import large enough to cross the
+ * journal's compaction threshold once used to duplicate part of its last
+ * batch on restart. Not a JMH benchmark; run it on its own, once per
+ * snapshot format:
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar eg.bench.ImportRestartCheck [tasks]
+ * </pre>
+ */
+public final class ImportRestartCheck {
+
+    private ImportRestartCheck() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 150_000;
+        Path dir = Files.createTempDirectory("import-restart");
+        Path input = dir.resolve("import.csv");
+        try {
+            try (BufferedWriter out = Files.newBufferedWriter(input, StandardCharsets.UTF_8)) {
+                for (ToDoListLogic.Task task : TaskFixtures.tasks(count, Distribution.UNIFORM)) {
+                    out.write(task.getName() + "," + task.getPriority() + "," + task.getStatus().getSymbol());
+                    out.newLine();
+                }
+            }
+            for (SnapshotFormat format : SnapshotFormat.values()) {
+                check(dir, input, format, count);
+            }
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    private static void check(Path dir, Path input, SnapshotFormat format, int count) throws IOException {
+        Path snapshot = dir.resolve(format.getDefaultFileName());
+        Path journalFile = dir.resolve("tasks.journal");
+        try {
+            ToDoListLogic logic = new ToDoListLogic();
+            TaskJournal journal = TaskJournal.open(snapshot, format, journalFile, logic);
+            TaskImporter.Result result = TaskImporter.importFile(logic, input, TaskImporter.Format.CSV, progress -> { });
+            journal.close();
+            if (result.getImported() != count) {
+                throw new IllegalStateException(format + ": imported " + result.getImported() + " of " + count + " tasks");
+            }
+
+            ToDoListLogic restarted = new ToDoListLogic();
+            if (Files.exists(snapshot)) {
+                restarted.addTasks(format.read(snapshot, progress -> { }));
+            }
+            TaskJournal.open(snapshot, format, journalFile, restarted).close();
+            int loaded = restarted.getTasks().size();
+            if (loaded != count) {
+                throw new IllegalStateException(format + ": " + loaded + " tasks after restart, expected " + count);
+            }
+            System.out.println(format + ": " + loaded + " tasks after restart, snapshot "
+                    + (Files.exists(snapshot) ? Files.size(snapshot) : 0) + " bytes, journal " + Files.size(journalFile) + " bytes");
+        } finally {
+            Files.deleteIfExists(snapshot);
+            Files.deleteIfExists(journalFile);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package eg.bench;
+
+import eg.TaskBatch;
+import eg.TaskStatus;
+import eg.ToDoListLogic;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Throughput of the ToDoListLogic operations the GUI uses, on a list that
+ * already holds {@code tasks} tasks. Every operation leaves the list size
+ * unchanged so the numbers stay comparable across iterations. Run with
+ * {@code -prof gc} for allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class LogicBenchmark {
+
+    private static final int INDEXES = 1 << 16;
+    // Rows touched by one Save Changes in the edit dialog, as in a large bulk edit
+    private static final int BULK_EDIT = 100_000;
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    @Param({"1000", "100000", "1000000"})
+    public int tasks;
+
+    @Param({"UNIFORM", "SKEWED", "SINGLE", "WITH_UNKNOWN"})
+    public Distribution distribution;
+
+    private ToDoListLogic logic;
+    private String[] priorities;
+    private int[] indexes;
+    // Ids of the tasks at indexes[i] when the trial started
+    private long[] ids;
+    private long[] bulkIds;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        logic = new ToDoListLogic();
+        logic.addTasks(TaskFixtures.tasks(tasks, distribution));
+        Random random = new Random(3);
+        priorities = new String[INDEXES];
+        for (int i = 0; i < INDEXES; i++) {
+            priorities[i] = TaskFixtures.priority(random, distribution);
+        }
+        indexes = TaskFixtures.indexes(INDEXES, tasks);
+        ids = new long[INDEXES];
+        for (int i = 0; i < INDEXES; i++) {
+            ids[i] = logic.getTasks().get(indexes[i]).getId();
+        }
+        bulkIds = new long[Math.min(BULK_EDIT, tasks)];
+        for (int i = 0; i < bulkIds.length; i++) {
+            bulkIds[i] = logic.getTasks().get(i).getId();
+        }
+    }
+
+    private int next() {
+        return cursor++ & (INDEXES - 1);
+    }
+
+    @Benchmark
+    public void addThenRemove() {
+        int i = next();
+        logic.addTask("New task", priorities[i]);
+        logic.removeTask(indexes[i]);
+    }
+
+    @Benchmark
+    public void setStatus() {
+        int i = next();
+        logic.setStatus(indexes[i], STATUSES[i % STATUSES.length]);
+    }
+
+    @Benchmark
+    public ToDoListLogic.Task getByIndex() {
+        return logic.getTasks().get(indexes[next()]);
+    }
+
+    @Benchmark
+    public void addThenRemoveById() {
+        ToDoListLogic.Task task = logic.addTask("New task", priorities[next()]);
+        logic.removeTaskById(task.getId());
+    }
+
+    @Benchmark
+    public void setStatusById() {
+        int i = next();
+        logic.setStatusById(ids[i], STATUSES[i % STATUSES.length]);
+    }
+
+    @Benchmark
+    public ToDoListLogic.Task getById() {
+        return logic.getTaskById(ids[next()]);
+    }
+
+    // Save Changes after ticking up to 100k rows in the edit dialog
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int bulkSetStatusById() {
+        return logic.setStatusById(bulkIds, STATUSES[next() % STATUSES.length]);
+    }
+
+    // Save Changes after ticking a handful of rows: should cost the same whatever the list size
+    @Benchmark
+    public void applyBatchOfTen() {
+        TaskBatch batch = new TaskBatch();
+        for (int k = 0; k < 10; k++) {
+            int i = next();
+            batch.setStatus(ids[i], STATUSES[i % STATUSES.length]);
+        }
+        logic.applyBatch(batch);
+    }
+
+    // The Executed Tasks dialog: open the filtered view and read every row once
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public void scanFiltered(Blackhole blackhole) {
+        for (ToDoListLogic.Task task : logic.getFilteredTasks(TaskStatus.DONE)) {
+            blackhole.consume(task);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package eg.bench;
+
+import eg.ToDoListLogic;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of the priority comparison key: sorting tasks by priority level, the
+ * order PriorityBuckets keeps. Tasks are sorted from the same shuffled copy
+ * every time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class PriorityOrderBenchmark {
+
+    private static final Comparator<ToDoListLogic.Task> BY_LEVEL = Comparator.comparingInt(ToDoListLogic.Task::getPriorityLevel);
+
+    @Param({"1000000"})
+    public int tasks;
+
+    @Param({"UNIFORM", "WITH_UNKNOWN"})
+    public Distribution distribution;
+
+    private ToDoListLogic.Task[] shuffled;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<ToDoListLogic.Task> list = TaskFixtures.tasks(tasks, distribution);
+        shuffled = list.toArray(new ToDoListLogic.Task[0]);
+    }
+
+    @Benchmark
+    public ToDoListLogic.Task[] sortByPriority() {
+        ToDoListLogic.Task[] copy = Arrays.copyOf(shuffled, shuffled.length);
+        Arrays.sort(copy, BY_LEVEL);
+        return copy;
+    }
+}
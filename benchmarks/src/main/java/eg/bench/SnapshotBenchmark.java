@@ -0,0 +1,82 @@
+package eg.bench;
+
+import eg.TaskStatus;
+import eg.TaskStore;
+import eg.ToDoListLogic;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Readers and a writer on the same store at once: one thread changes
+ * statuses while another takes a TaskStore snapshot and reads every task in
+ * it, the way save, export and the search index build do. The writer's
+ * score next to LogicBenchmark.setStatusById shows what the readers cost
+ * it; {@code takeSnapshot} is the price of a snapshot on its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class SnapshotBenchmark {
+
+    private static final int IDS = 1 << 16;
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    @Param({"100000", "1000000"})
+    public int tasks;
+
+    private TaskStore store;
+    private long[] ids;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ToDoListLogic logic = new ToDoListLogic();
+        logic.addTasks(TaskFixtures.tasks(tasks, Distribution.UNIFORM));
+        store = logic.getStore();
+        int[] indexes = TaskFixtures.indexes(IDS, tasks);
+        ids = new long[IDS];
+        for (int i = 0; i < IDS; i++) {
+            ids[i] = store.get(indexes[i]).getId();
+        }
+    }
+
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(1)
+    public boolean write() {
+        int i = cursor++ & (IDS - 1);
+        return store.setStatusById(ids[i], STATUSES[i % STATUSES.length]);
+    }
+
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(1)
+    public void read(Blackhole blackhole) {
+        for (ToDoListLogic.Task task : store.snapshot()) {
+            blackhole.consume(task);
+        }
+    }
+
+    @Benchmark
+    public List<ToDoListLogic.Task> takeSnapshot() {
+        return store.snapshot();
+    }
+}
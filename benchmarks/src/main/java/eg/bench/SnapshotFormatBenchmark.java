@@ -0,0 +1,73 @@
+package eg.bench;
+
+import eg.SnapshotFormat;
+import eg.ToDoListLogic;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Save and load time of a snapshot in each format. The file size of each
+ * format is printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class SnapshotFormatBenchmark {
+
+    @Param({"1000000"})
+    public int tasks;
+
+    @Param({"CSV", "BINARY"})
+    public SnapshotFormat format;
+
+    private List<ToDoListLogic.Task> list;
+    private Path dir;
+    private Path loadFile;
+    private Path saveFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        list = TaskFixtures.tasks(tasks, Distribution.UNIFORM);
+        dir = Files.createTempDirectory("snapshot-bench");
+        loadFile = dir.resolve("load");
+        saveFile = dir.resolve("save");
+        format.write(loadFile, list, 0);
+        System.out.println(format + " snapshot of " + tasks + " tasks: " + Files.size(loadFile) + " bytes");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(loadFile);
+        Files.deleteIfExists(saveFile);
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public void save() throws IOException {
+        format.write(saveFile, list, 0);
+    }
+
+    @Benchmark
+    public List<ToDoListLogic.Task> load() throws IOException {
+        return format.read(loadFile, progress -> { });
+    }
+}
@@ -0,0 +1,68 @@
+package eg.bench;
+
+import eg.TaskOrder;
+import eg.ToDoListLogic;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * TaskOrder.sort on shuffled tasks for each order the Sort by box offers.
+ * Run with {@code -jvmArgsAppend -Djava.util.concurrent.ForkJoinPool.common.parallelism=1}
+ * to compare against a single-threaded sort.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class SortBenchmark {
+
+    public enum Order {
+        PRIORITY(TaskOrder.PRIORITY),
+        STATUS_PRIORITY(TaskOrder.by(TaskOrder.Key.STATUS).then(TaskOrder.Key.PRIORITY)),
+        NAME(TaskOrder.by(TaskOrder.Key.NAME)),
+        NEWEST(TaskOrder.byDescending(TaskOrder.Key.CREATED));
+
+        final TaskOrder order;
+
+        Order(TaskOrder order) {
+            this.order = order;
+        }
+    }
+
+    @Param({"10000", "1000000", "10000000"})
+    public int tasks;
+
+    @Param({"PRIORITY", "STATUS_PRIORITY", "NAME", "NEWEST"})
+    public Order order;
+
+    private List<ToDoListLogic.Task> shuffled;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ToDoListLogic logic = new ToDoListLogic();
+        logic.addTasks(TaskFixtures.tasks(tasks, Distribution.UNIFORM));
+        shuffled = logic.getStore().snapshot();
+        Collections.shuffle(shuffled, new Random(11));
+    }
+
+    @Benchmark
+    public ToDoListLogic.Task[] sort() {
+        return order.order.sort(shuffled);
+    }
+}
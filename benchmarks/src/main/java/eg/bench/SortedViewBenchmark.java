@@ -0,0 +1,80 @@
+package eg.bench;
+
+import eg.SortedTaskTableModel;
+import eg.TaskStatus;
+import eg.TaskStore;
+import eg.ToDoListLogic;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import javax.swing.SwingUtilities;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Adding a task to, and removing it from, a list shown in the Sort by
+ * box's order: the store change plus the SortedTaskTableModel moving the
+ * row, which happens in the change bus flushes sharing the EDT with the
+ * benchmark. {@code edtRoundTrip} is the cost of getting onto the EDT, to
+ * subtract. SortBenchmark has the cost of the full sort this replaces.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g", "-Djava.awt.headless=true"})
+public class SortedViewBenchmark {
+
+    @Param({"1000000"})
+    public int tasks;
+
+    @Param({"STATUS_PRIORITY", "NAME", "NEWEST"})
+    public SortBenchmark.Order order;
+
+    private ToDoListLogic logic;
+    private TaskStore store;
+    private SortedTaskTableModel model;
+    private final Random random = new Random(7);
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException, InvocationTargetException {
+        logic = new ToDoListLogic();
+        logic.addTasks(TaskFixtures.tasks(tasks, Distribution.UNIFORM));
+        store = logic.getStore();
+        model = SortedTaskTableModel.attach(logic, order.order);
+        // Lets the sorted rows reach the model
+        SwingUtilities.invokeAndWait(() -> { });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        model.detach();
+    }
+
+    @Benchmark
+    public void addAndRemove() throws InterruptedException, InvocationTargetException {
+        String priority = TaskFixtures.priority(random, Distribution.UNIFORM);
+        String name = "Task number " + random.nextInt(tasks);
+        SwingUtilities.invokeAndWait(() -> {
+            ToDoListLogic.Task task = store.add(new ToDoListLogic.Task(name, priority, TaskStatus.NOT_DONE));
+            store.removeById(task.getId());
+        });
+    }
+
+    @Benchmark
+    public void edtRoundTrip() throws InterruptedException, InvocationTargetException {
+        SwingUtilities.invokeAndWait(() -> { });
+    }
+}
@@ -0,0 +1,51 @@
+package eg.bench;
+
+import eg.TaskStatus;
+import eg.ToDoListLogic;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/** Deterministic task lists for the benchmarks. */
+final class TaskFixtures {
+
+    private static final String[] PRIORITIES = {"High", "Medium", "Low"};
+
+    private TaskFixtures() {
+    }
+
+    static List<ToDoListLogic.Task> tasks(int count, Distribution distribution) {
+        Random random = new Random(42);
+        TaskStatus[] statuses = TaskStatus.values();
+        List<ToDoListLogic.Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(new ToDoListLogic.Task("Task number " + i, priority(random, distribution),
+                    statuses[random.nextInt(statuses.length)]));
+        }
+        return tasks;
+    }
+
+    static String priority(Random random, Distribution distribution) {
+        switch (distribution) {
+            case SKEWED:
+                int roll = random.nextInt(100);
+                return roll < 5 ? "High" : roll < 20 ? "Medium" : "Low";
+            case SINGLE:
+                return "Medium";
+            case WITH_UNKNOWN:
+                return random.nextInt(10) == 0 ? "Someday" : PRIORITIES[random.nextInt(3)];
+            default:
+                return PRIORITIES[random.nextInt(3)];
+        }
+    }
+
+    // Fixed pseudo-random ints in [0, bound) so benchmark loops do not pay for Random
+    static int[] indexes(int count, int bound) {
+        Random random = new Random(7);
+        int[] indexes = new int[count];
+        for (int i = 0; i < count; i++) {
+            indexes[i] = random.nextInt(bound);
+        }
+        return indexes;
+    }
+}
@@ -0,0 +1,77 @@
+package eg.bench;
+
+import eg.ColumnarTaskStore;
+import eg.SnapshotFormat;
+import eg.TaskJournal;
+import eg.ToDoListLogic;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.openjdk.jol.info.ClassLayout;
+import org.openjdk.jol.info.GraphLayout;
+
+/**
+ * Heap held per task, measured with JOL: the field layout of Task, then
+ * everything reachable from the task list after loading it the way the app
+ * does, once from a CSV snapshot and once by replaying the journal, and
+ * the same tasks copied into a ColumnarTaskStore. Not a JMH benchmark; run
+ * it on its own:
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar eg.bench.TaskFootprint [tasks]
+ * </pre>
+ */
+public final class TaskFootprint {
+
+    private TaskFootprint() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        List<ToDoListLogic.Task> tasks = TaskFixtures.tasks(count, Distribution.WITH_UNKNOWN);
+        System.out.println(ClassLayout.parseClass(ToDoListLogic.Task.class).toPrintable());
+
+        Path dir = Files.createTempDirectory("footprint");
+        Path snapshot = dir.resolve("tasks.txt");
+        Path journalFile = dir.resolve("tasks.journal");
+        try {
+            SnapshotFormat.CSV.write(snapshot, tasks, 0);
+            ToDoListLogic fromSnapshot = new ToDoListLogic();
+            fromSnapshot.addTasks(SnapshotFormat.CSV.read(snapshot, progress -> { }));
+            report("CSV snapshot", fromSnapshot, count);
+            ColumnarTaskStore columns = ColumnarTaskStore.of(fromSnapshot.getStore().snapshot());
+            System.out.println("ColumnarTaskStore: " + GraphLayout.parseInstance(columns).totalSize() / count + " bytes per task");
+            System.out.println();
+            Files.delete(snapshot);
+
+            ToDoListLogic recorded = new ToDoListLogic();
+            TaskJournal journal = TaskJournal.open(snapshot, SnapshotFormat.CSV, journalFile, recorded);
+            for (ToDoListLogic.Task task : tasks) {
+                recorded.addTask(task.getName(), task.getPriority());
+            }
+            journal.close();
+            // The journal may have compacted part of itself into a snapshot; load that first, as the app does
+            ToDoListLogic replayed = new ToDoListLogic();
+            if (Files.exists(snapshot)) {
+                replayed.addTasks(SnapshotFormat.CSV.read(snapshot, progress -> { }));
+            }
+            TaskJournal.open(snapshot, SnapshotFormat.CSV, journalFile, replayed).close();
+            report("Journal replay", replayed, count);
+        } finally {
+            Files.deleteIfExists(snapshot);
+            Files.deleteIfExists(journalFile);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    private static void report(String source, ToDoListLogic logic, int count) {
+        List<ToDoListLogic.Task> loaded = logic.getStore().snapshot();
+        if (loaded.size() != count) {
+            throw new IllegalStateException(source + " loaded " + loaded.size() + " of " + count + " tasks");
+        }
+        GraphLayout graph = GraphLayout.parseInstance(loaded);
+        System.out.println(source + ": " + graph.totalSize() / count + " bytes per task");
+        System.out.println(graph.toFootprint());
+    }
+}